@@ -0,0 +1,148 @@
+
+package com.philjay.circledisplay;
+
+import android.graphics.Path;
+import android.util.SparseIntArray;
+
+/**
+ * Least-recently-used cache of value arc paths, keyed by step index. Used
+ * when the value of the CircleDisplay is quantized by a step size, so the
+ * arc of a settled or selected value is built once and drawn again from the
+ * cache. The number of cached paths is bounded by a memory budget. Evicted
+ * Path objects are reused, so the cache does not allocate once it is full.
+ * 
+ * @author Philipp Jahoda
+ */
+public class ArcPathCache {
+
+    /**
+     * Estimated memory of one cached arc path in bytes. An arc or ring segment
+     * consists of up to a dozen conic segments plus the native path object,
+     * which stays well below this estimate.
+     */
+    public static final int ESTIMATED_PATH_BYTES = 512;
+
+    /** maps step indices to slots */
+    private final SparseIntArray mSlots;
+
+    /** the cached paths, by slot */
+    private final Path[] mPaths;
+
+    /** the step index stored in each slot */
+    private final int[] mKeys;
+
+    /** access stamp of each slot, for finding the least recently used one */
+    private final long[] mLastUse;
+
+    /** number of slots in use */
+    private int mSize = 0;
+
+    /** counter for the access stamps */
+    private long mClock = 0;
+
+    /**
+     * creates a cache that holds as many paths as fit into the given budget,
+     * but at least one
+     * 
+     * @param maxBytes
+     */
+    public ArcPathCache(int maxBytes) {
+
+        int capacity = Math.max(1, maxBytes / ESTIMATED_PATH_BYTES);
+
+        mSlots = new SparseIntArray(capacity);
+        mPaths = new Path[capacity];
+        mKeys = new int[capacity];
+        mLastUse = new long[capacity];
+    }
+
+    /**
+     * returns the cached path for the given step index, null if there is none
+     * 
+     * @param stepIndex
+     * @return
+     */
+    public Path get(int stepIndex) {
+
+        int slot = mSlots.get(stepIndex, -1);
+
+        if (slot < 0)
+            return null;
+
+        mLastUse[slot] = ++mClock;
+        return mPaths[slot];
+    }
+
+    /**
+     * Returns an empty path stored under the given step index, to be filled by
+     * the caller. Evicts the least recently used path if the cache is full.
+     * 
+     * @param stepIndex
+     * @return
+     */
+    public Path obtain(int stepIndex) {
+
+        int slot = mSlots.get(stepIndex, -1);
+
+        if (slot < 0) {
+
+            if (mSize < mPaths.length) {
+                slot = mSize++;
+
+                if (mPaths[slot] == null)
+                    mPaths[slot] = new Path();
+            } else {
+                slot = leastRecentlyUsedSlot();
+                mSlots.delete(mKeys[slot]);
+            }
+
+            mKeys[slot] = stepIndex;
+            mSlots.put(stepIndex, slot);
+        }
+
+        mLastUse[slot] = ++mClock;
+
+        Path p = mPaths[slot];
+        p.rewind();
+        return p;
+    }
+
+    /**
+     * removes all paths from the cache, needs to be called whenever the
+     * geometry the paths were built for changes
+     */
+    public void clear() {
+        mSlots.clear();
+        mSize = 0;
+    }
+
+    /**
+     * returns the number of paths the cache can hold
+     * 
+     * @return
+     */
+    public int getCapacity() {
+        return mPaths.length;
+    }
+
+    /**
+     * returns the number of paths currently cached
+     * 
+     * @return
+     */
+    public int size() {
+        return mSize;
+    }
+
+    private int leastRecentlyUsedSlot() {
+
+        int lru = 0;
+
+        for (int i = 1; i < mSize; i++) {
+            if (mLastUse[i] < mLastUse[lru])
+                lru = i;
+        }
+
+        return lru;
+    }
+}
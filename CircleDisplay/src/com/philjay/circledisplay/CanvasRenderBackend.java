@@ -0,0 +1,69 @@
+
+package com.philjay.circledisplay;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+/**
+ * CircleRenderBackend drawing onto an Android Canvas with the Paints of a
+ * CircleDisplay. Call begin(...) before drawing each frame.
+ * 
+ * @author Philipp Jahoda
+ */
+public class CanvasRenderBackend implements CircleRenderBackend {
+
+    private Canvas mCanvas;
+
+    private Paint mArcPaint;
+    private Paint mInnerCirclePaint;
+    private Paint mTextPaint;
+
+    /** alpha value used for the background circle */
+    private int mDimAlpha;
+
+    /** bounds of the value arc, reused for every arc */
+    private final RectF mArcBox = new RectF();
+
+    /**
+     * sets the canvas and the paints to draw with
+     * 
+     * @param c
+     * @param arcPaint paint of the value and, with dimAlpha, the background
+     * @param innerCirclePaint
+     * @param textPaint
+     * @param dimAlpha
+     */
+    public void begin(Canvas c, Paint arcPaint, Paint innerCirclePaint, Paint textPaint,
+            int dimAlpha) {
+        mCanvas = c;
+        mArcPaint = arcPaint;
+        mInnerCirclePaint = innerCirclePaint;
+        mTextPaint = textPaint;
+        mDimAlpha = dimAlpha;
+    }
+
+    @Override
+    public void drawBackgroundCircle(float cx, float cy, float radius) {
+        mArcPaint.setAlpha(mDimAlpha);
+        mCanvas.drawCircle(cx, cy, radius, mArcPaint);
+    }
+
+    @Override
+    public void drawValueArc(float left, float top, float right, float bottom,
+            float startAngle, float sweepAngle) {
+        mArcPaint.setAlpha(255);
+        mArcBox.set(left, top, right, bottom);
+        mCanvas.drawArc(mArcBox, startAngle, sweepAngle, true, mArcPaint);
+    }
+
+    @Override
+    public void drawInnerCircle(float cx, float cy, float radius) {
+        mCanvas.drawCircle(cx, cy, radius, mInnerCirclePaint);
+    }
+
+    @Override
+    public void drawCenterText(char[] text, int length, float x, float baseline) {
+        mCanvas.drawText(text, 0, length, x, baseline, mTextPaint);
+    }
+}
@@ -1,27 +1,28 @@
 
 package com.philjay.circledisplay;
 
-import android.animation.ObjectAnimator;
-import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.res.Resources;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Paint.Align;
 import android.graphics.Paint.Style;
+import android.graphics.Path;
 import android.graphics.PointF;
+import android.graphics.Rect;
 import android.graphics.RectF;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
 import android.util.Log;
+import android.view.Choreographer;
+import android.view.Display;
 import android.view.GestureDetector;
 import android.view.GestureDetector.OnGestureListener;
 import android.view.MotionEvent;
 import android.view.View;
-import android.view.animation.AccelerateDecelerateInterpolator;
-
-import java.text.DecimalFormat;
 
 /**
  * Simple custom-view for displaying values (with and without animation) and
@@ -29,14 +30,10 @@ import java.text.DecimalFormat;
  * 
  * @author Philipp Jahoda
  */
-@SuppressLint("NewApi")
 public class CircleDisplay extends View implements OnGestureListener {
 
     private static final String LOG_TAG = "CircleDisplay";
 
-    /** the unit that is represented by the circle-display */
-    private String mUnit = "%";
-
     /** startangle of the view */
     private float mStartAngle = 270f;
 
@@ -58,6 +55,18 @@ public class CircleDisplay extends View implements OnGestureListener {
     /** the maximum displayable value, depends on the set value */
     private float mMaxValue = 0f;
 
+    /** value the current animation started from */
+    private float mFromValue = 0f;
+
+    /** angle the current animation started from */
+    private float mFromAngle = 0f;
+
+    /**
+     * if enabled, animated values continue from the currently displayed value
+     * instead of starting at zero
+     */
+    private boolean mAnimateFromCurrent = false;
+
     /** percent of the maximum width the arc takes */
     private float mValueWidthPercent = 50f;
 
@@ -73,11 +82,37 @@ public class CircleDisplay extends View implements OnGestureListener {
     /** represents the alpha value used for the remainder bar */
     private int mDimAlpha = 80;
 
-    /** the decimalformat responsible for formatting the values in the view */
-    private DecimalFormat mFormatValue = new DecimalFormat("###,###,###,##0.0");
+    /** the formatter responsible for formatting the values in the view */
+    private ValueFormatter mFormatter = new FixedPointValueFormatter(1);
+
+    /**
+     * the unit that is represented by the circle-display, as a char array so
+     * it can be copied into the text buffer
+     */
+    private char[] mUnitChars = new char[] {
+            '%'
+    };
+
+    /**
+     * buffer the center text is formatted into, reused every frame so that
+     * drawing the text does not allocate
+     */
+    private char[] mTextBuffer = new char[mFormatter.getMaxLength(mUnitChars.length)];
+
+    /** end angles of the segments at full phase, see showSegments(...) */
+    private float[] mSegmentSweeps = new float[0];
+
+    /** colors of the segments */
+    private int[] mSegmentColors = new int[0];
+
+    /** number of segments shown, 0 if a single value is shown */
+    private int mSegmentCount = 0;
 
-    /** array that contains values for the custom-text */
-    private String[] mCustomText = null;
+    /** pre-measured custom texts drawn instead of the value, may be null */
+    private CustomTextTable mCustomText = null;
+
+    /** if enabled, the custom texts are shrunk to fit the inner circle */
+    private boolean mCustomTextAutoFit = true;
 
     /**
      * rect object that represents the bounds of the view, needed for drawing
@@ -85,12 +120,165 @@ public class CircleDisplay extends View implements OnGestureListener {
      */
     private RectF mCircleBox = new RectF();
 
+    /**
+     * snapshot of the layout, rebuilt whenever the size or a size-related
+     * setting changes
+     */
+    private CircleGeometry mGeometry;
+
+    /** rect object that represents the bounds of the inner circle */
+    private RectF mInnerBox = new RectF();
+
     private Paint mArcPaint;
     private Paint mInnerCirclePaint;
     private Paint mTextPaint;
 
-    /** object animator for doing the drawing animations */
-    private ObjectAnimator mDrawAnimator;
+    /** created when ticks and labels are first enabled */
+    private Paint mTickPaint;
+    private Paint mTickLabelPaint;
+
+    /** tick marks and scale labels, laid out lazily */
+    private final TickMarks mTicks = new TickMarks();
+
+    /** if enabled, tick marks are drawn around the value bar */
+    private boolean mDrawTicks = false;
+
+    /** if enabled, scale labels are drawn at the major ticks */
+    private boolean mDrawTickLabels = false;
+
+    /** value between two ticks, 0 to use the stepsize */
+    private float mTickInterval = 0f;
+
+    /** every how many ticks a major tick is drawn */
+    private int mMajorTickEvery = 5;
+
+    /** true if the ticks need to be laid out again before drawing */
+    private boolean mTicksDirty = true;
+
+    /** backend the renderer draws the view through */
+    private final CanvasRenderBackend mBackend = new CanvasRenderBackend();
+
+    /**
+     * if enabled, the parts of the view that do not change with the value are
+     * rendered once into a bitmap that is reused every frame
+     */
+    private boolean mLayerCacheEnabled = false;
+
+    /** bitmap holding the static layer (background circle, inner circle) */
+    private Bitmap mStaticLayer;
+
+    /** canvas drawing into the static layer bitmap */
+    private Canvas mStaticLayerCanvas;
+
+    /** flag that indicates if the static layer needs to be rendered again */
+    private boolean mStaticLayerDirty = true;
+
+    /** path of the value ring, reused every frame when the cache is enabled */
+    private Path mValuePath = new Path();
+
+    /** cache of value arcs per step index, null if disabled */
+    private ArcPathCache mArcPathCache;
+
+    /** memory budget of the arc path cache in bytes */
+    private int mArcPathCacheBytes = 64 * 1024;
+
+    /** true if the cached paths are ring segments, false for wedges */
+    private boolean mArcPathCacheRing = false;
+
+    /** tolerance for treating a value as sitting exactly on a step */
+    private static final float STEP_EPSILON = 1e-3f;
+
+    /**
+     * if enabled, value changes only invalidate the region of the arc and the
+     * text that changed
+     */
+    private boolean mPartialInvalidation = false;
+
+    /** sweep angle of the value that was drawn in the last frame */
+    private float mDrawnAngle = 0f;
+
+    /** number of segments that were drawn in the last frame */
+    private int mDrawnSegmentCount = 0;
+
+    /** width of the center text that was drawn in the last frame */
+    private float mDrawnTextWidth = 0f;
+
+    /** bounds of the swept arc delta, left, top, right, bottom */
+    private final float[] mSweepBounds = new float[4];
+
+    /** the region invalidated by the last value change */
+    private final Rect mDirtyRect = new Rect();
+
+    /** union of the regions invalidated since the last frame */
+    private final Rect mPendingDirtyRect = new Rect();
+
+    /** clip bounds of the canvas in onDraw() */
+    private final Rect mClipBounds = new Rect();
+
+    /** true if a value change invalidated the whole view since the last frame */
+    private boolean mPendingFullInvalidation = false;
+
+    /** pixel area invalidated by value changes for the last frame */
+    private long mLastFrameDirtyArea = 0;
+
+    /** if enabled, the invalidated region of each frame is outlined */
+    private boolean mDrawDirtyRegions = false;
+
+    /** paint for outlining the invalidated regions, created on first use */
+    private Paint mDebugPaint;
+
+    /** formatter, unit and buffer of the dirty area text, created on first use */
+    private ValueFormatter mDebugFormatter;
+    private char[] mDebugUnitChars;
+    private char[] mDebugTextBuffer;
+
+    /** margin around invalidated regions for anti-aliased edges, in pixels */
+    private static final int DIRTY_MARGIN = 2;
+
+    /** animator for doing the drawing animations, created on first use */
+    private PhaseAnimator mDrawAnimator;
+
+    /** duration of the drawing animation in milliseconds */
+    private int mAnimDuration = 3000;
+
+    /** the style that was last applied with setStyle(...), may be null */
+    private CircleDisplayStyle mStyle;
+
+    /** policy deciding if bind(...) animates, e.g. BIND_ANIMATE_ALWAYS */
+    private int mBindPolicy = BIND_ANIMATE_ALWAYS;
+
+    /** detaches shorter ago than this count as recent for BIND_SNAP_IF_RECENT */
+    private long mRecentDetachMillis = 1000;
+
+    /** true if bind(...) was called since creation or the last onRecycled() */
+    private boolean mBound = false;
+
+    /** uptime of the last detach from the window, 0 if never detached */
+    private long mDetachedAt = 0;
+
+    /** true while the view is attached to a window */
+    private boolean mAttached = false;
+
+    /** true while animation and feed are suspended because the view is hidden */
+    private boolean mSuspended = false;
+
+    /** uptime the view was suspended at while it had work, 0 otherwise */
+    private long mSuspendedAt = 0;
+
+    /** estimated number of frames not drawn while suspended */
+    private long mSkippedFrames = 0;
+
+    /** feed the view is bound to for streaming values, may be null */
+    private ValueFeed mValueFeed;
+
+    /** consumer applying the values of the feed to the view */
+    private final ValueFeed.Consumer mFeedConsumer = new ValueFeed.Consumer() {
+
+        @Override
+        public void onFeedValue(float value, float total) {
+            showValue(value, total, false);
+        }
+    };
 
     public CircleDisplay(Context context) {
         super(context);
@@ -109,8 +297,6 @@ public class CircleDisplay extends View implements OnGestureListener {
 
     private void init() {
 
-        mBoxSetup = false;
-
         mArcPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         mArcPaint.setStyle(Style.FILL);
         mArcPaint.setColor(Color.rgb(192, 255, 140));
@@ -125,286 +311,1347 @@ public class CircleDisplay extends View implements OnGestureListener {
         mTextPaint.setColor(Color.BLACK);
         mTextPaint.setTextSize(Utils.convertDpToPixel(getResources(), 24f));
 
-        mDrawAnimator = ObjectAnimator.ofFloat(this, "phase", mPhase, 1.0f).setDuration(3000);
-        mDrawAnimator.setInterpolator(new AccelerateDecelerateInterpolator());
+        updateGeometry();
 
-        mGestureDetector = new GestureDetector(getContext(), this);
     }
 
-    /** boolean flag that indicates if the box has been setup */
-    private boolean mBoxSetup = false;
-
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
 
-        if (!mBoxSetup) {
-            mBoxSetup = true;
-            setupBox();
-        }
+        // every region is redrawn once per frame, however often it was
+        // invalidated
+        if (mPendingFullInvalidation)
+            mLastFrameDirtyArea = (long) getWidth() * getHeight();
+        else
+            mLastFrameDirtyArea = (long) mPendingDirtyRect.width() * mPendingDirtyRect.height();
 
-        drawWholeCircle(canvas);
+        mPendingFullInvalidation = false;
+        mDrawnAngle = getDisplayedAngle();
+        mDrawnSegmentCount = mSegmentCount;
 
-        drawValue(canvas);
+        if (mLayerCacheEnabled) {
 
-        if (mDrawInner)
-            drawInnerCircle(canvas);
+            drawStaticLayer(canvas);
 
-        if (mDrawText) {
+            // the cached inner circle lies below the value, so only draw the
+            // ring part of the value on top of it
+            if (mDrawInner)
+                drawValueRing(canvas);
+            else
+                drawValue(canvas);
+
+        } else {
+
+            drawWholeCircle(canvas);
+
+            if (mDrawTicks)
+                drawTicks(canvas);
+
+            drawValue(canvas);
+
+            if (mDrawInner)
+                drawInnerCircle(canvas);
+
+            if (mDrawTicks && mDrawTickLabels)
+                drawTickLabels(canvas);
+        }
+
+        if (mDrawText && isTextInClip(canvas)) {
             
             if (mCustomText != null)
                 drawCustomText(canvas);
             else
                 drawText(canvas);
         }
-    }
 
-    /**
-     * draws the text in the center of the view
-     * 
-     * @param c
-     */
-    private void drawText(Canvas c) {
-        c.drawText(mFormatValue.format(mValue * mPhase) + " " + mUnit, getWidth() / 2,
-                getHeight() / 2 + mTextPaint.descent(), mTextPaint);
-    }
+        if (mDrawDirtyRegions)
+            drawDirtyRegion(canvas);
 
-    /**
-     * draws the custom text in the center of the view
-     * 
-     * @param c
-     */
-    private void drawCustomText(Canvas c) {
-        
-        int index = (int) ((mValue * mPhase) / mStepSize);
-        
-        if(index < mCustomText.length) {
-            c.drawText(mCustomText[index], getWidth() / 2,
-                    getHeight() / 2 + mTextPaint.descent(), mTextPaint);
-        } else {
-            Log.e(LOG_TAG, "Custom text array not long enough.");
-        }        
+        mPendingDirtyRect.setEmpty();
     }
 
     /**
-     * draws the background circle with less alpha
+     * returns false if partial invalidation is enabled and the region being
+     * redrawn does not reach the center text, so drawing it can be skipped
      * 
      * @param c
+     * @return
      */
-    private void drawWholeCircle(Canvas c) {
-        mArcPaint.setAlpha(mDimAlpha);
+    private boolean isTextInClip(Canvas c) {
 
-        float r = getRadius();
+        if (!mPartialInvalidation || !c.getClipBounds(mClipBounds))
+            return true;
+
+        float top = mGeometry.textBaseline + mTextPaint.ascent();
+        float bottom = mGeometry.textBaseline + mTextPaint.descent();
 
-        c.drawCircle(getWidth() / 2, getHeight() / 2, r, mArcPaint);
+        return mClipBounds.bottom >= top && mClipBounds.top <= bottom;
     }
 
     /**
-     * draws the inner circle of the view
+     * outlines the region invalidated for this frame and prints its area
      * 
      * @param c
      */
-    private void drawInnerCircle(Canvas c) {
+    private void drawDirtyRegion(Canvas c) {
+
+        if (mDebugPaint == null) {
+            mDebugPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            mDebugPaint.setStyle(Style.STROKE);
+            mDebugPaint.setColor(Color.RED);
+            mDebugPaint.setTextSize(Utils.convertDpToPixel(getResources(), 10f));
+
+            mDebugFormatter = new FixedPointValueFormatter(0);
+            mDebugUnitChars = "px dirty".toCharArray();
+            mDebugTextBuffer = new char[mDebugFormatter.getMaxLength(mDebugUnitChars.length)];
+        }
+
+        if (!mPendingDirtyRect.isEmpty())
+            c.drawRect(mPendingDirtyRect, mDebugPaint);
 
-        c.drawCircle(getWidth() / 2, getHeight() / 2, getRadius() / 100f
-                * (100f - mValueWidthPercent), mInnerCirclePaint);
+        int length = mDebugFormatter.format(mLastFrameDirtyArea, mDebugUnitChars,
+                mDebugTextBuffer);
+        c.drawText(mDebugTextBuffer, 0, length, 0, -mDebugPaint.ascent(), mDebugPaint);
     }
 
     /**
-     * draws the actual value slice/arc
-     * 
-     * @param c
+     * Invalidates the view after the displayed value changed. With partial
+     * invalidation enabled, only the bounding box of the swept arc delta and
+     * the center text is invalidated.
      */
-    private void drawValue(Canvas c) {
+    private void invalidateValue() {
 
-        mArcPaint.setAlpha(255);
+        if (!mPartialInvalidation) {
+            mPendingFullInvalidation = true;
+            invalidate();
+            return;
+        }
 
-        float angle = mAngle * mPhase;
+        CircleGeometry g = mGeometry;
+        float[] b = mSweepBounds;
 
-        c.drawArc(mCircleBox, mStartAngle, angle, true, mArcPaint);
+        if (mSegmentCount != mDrawnSegmentCount) {
+            // switching between segments and a single value recolors the arc
+            CircleMath.sweepBounds(g, mStartAngle, 0f, 360f, b);
+        } else if (mSegmentCount > 0) {
+            // all segment boundaries move with the phase, not only the end
+            CircleMath.sweepBounds(g, mStartAngle, 0f,
+                    Math.max(mDrawnAngle, getDisplayedAngle()), b);
+        } else {
+            CircleMath.sweepBounds(g, mStartAngle, mDrawnAngle, getDisplayedAngle(), b);
+        }
 
-        // Log.i(LOG_TAG, "CircleBox bounds: " + mCircleBox.toString() +
-        // ", Angle: " + angle + ", StartAngle: " + mStartAngle);
-    }
+        if (mDrawText) {
+            float halfWidth = Math.max(mDrawnTextWidth, measureCenterText()) / 2f;
 
-    /**
-     * sets up the bounds of the view
-     */
-    private void setupBox() {
+            b[0] = Math.min(b[0], g.centerX - halfWidth);
+            b[1] = Math.min(b[1], g.textBaseline + mTextPaint.ascent());
+            b[2] = Math.max(b[2], g.centerX + halfWidth);
+            b[3] = Math.max(b[3], g.textBaseline + mTextPaint.descent());
+        }
 
-        int width = getWidth();
-        int height = getHeight();
+        mDirtyRect.set((int) Math.floor(b[0]) - DIRTY_MARGIN, (int) Math.floor(b[1])
+                - DIRTY_MARGIN, (int) Math.ceil(b[2]) + DIRTY_MARGIN, (int) Math.ceil(b[3])
+                + DIRTY_MARGIN);
 
-        float diameter = getDiameter();
+        mPendingDirtyRect.union(mDirtyRect);
 
-        mCircleBox = new RectF(width / 2 - diameter / 2, height / 2 - diameter / 2, width / 2
-                + diameter / 2, height / 2 + diameter / 2);
+        invalidate(mDirtyRect);
     }
 
     /**
-     * shows the given value in the circle view
+     * returns the width of the center text for the currently displayed value
      * 
-     * @param toShow
-     * @param total
-     * @param animated
+     * @return
      */
-    public void showValue(float toShow, float total, boolean animated) {
+    private float measureCenterText() {
 
-        mAngle = calcAngle(toShow / total * 100f);
-        mValue = toShow;
-        mMaxValue = total;
+        if (mCustomText != null)
+            return mCustomText.getWidth(getCustomTextIndex());
 
-        if (animated)
-            startAnim();
-        else {
-            mPhase = 1f;
-            invalidate();
-        }
+        int length = mFormatter.format(getDisplayedValue(), mUnitChars, mTextBuffer);
+        return mTextPaint.measureText(mTextBuffer, 0, length);
     }
 
     /**
-     * Sets the unit that is displayed next to the value in the center of the
-     * view. Default "%". Could be "€" or "$" or left blank or whatever it is
-     * you display.
+     * Enables partial invalidation: when the value changes during animations,
+     * selection or showValue(...), only the bounding box of the part of the
+     * arc that changed plus the center text is invalidated instead of the
+     * whole view, and the text is not drawn if it lies outside of the redrawn
+     * region. Takes effect where the platform honors dirty regions, e.g. with
+     * software rendering. Default: false
      * 
-     * @param unit
+     * @param enabled
      */
-    public void setUnit(String unit) {
-        mUnit = unit;
+    public void setPartialInvalidationEnabled(boolean enabled) {
+        mPartialInvalidation = enabled;
     }
 
     /**
-     * Returns the currently displayed value from the view. Depending on the
-     * used method to show the value, this value can be percent or actual value.
+     * returns true if partial invalidation is enabled
      * 
      * @return
      */
-    public float getValue() {
-        return mValue;
-    }
-
-    public void startAnim() {
-        mPhase = 0f;
-        mDrawAnimator.start();
-    }
-
-    /**
-     * set the duration of the drawing animation in milliseconds
-     * 
-     * @param durationmillis
-     */
-    public void setAnimDuration(int durationmillis) {
-        mDrawAnimator.setDuration(durationmillis);
+    public boolean isPartialInvalidationEnabled() {
+        return mPartialInvalidation;
     }
 
     /**
-     * returns the diameter of the drawn circle/arc
+     * Returns the area in pixels that value changes invalidated for the last
+     * drawn frame: the area of the union of the invalidated regions, or of
+     * the whole view without partial invalidation. Several value changes in
+     * one frame count once.
      * 
      * @return
      */
-    public float getDiameter() {
-        return Math.min(getWidth(), getHeight());
+    public long getLastFrameDirtyArea() {
+        return mLastFrameDirtyArea;
     }
 
     /**
-     * returns the radius of the drawn circle
+     * set this to true to outline the invalidated region of every frame and to
+     * print its area, for debugging partial invalidation
      * 
-     * @return
+     * @param enabled
      */
-    public float getRadius() {
-        return getDiameter() / 2f;
+    public void setDrawDirtyRegions(boolean enabled) {
+        mDrawDirtyRegions = enabled;
+        invalidate();
     }
 
     /**
-     * calculates the needed angle for a given value
+     * draws the text in the center of the view
      * 
-     * @param percent
-     * @return
+     * @param c
      */
-    private float calcAngle(float percent) {
-        return percent / 100f * 360f;
+    private void drawText(Canvas c) {
+        int length = CircleRenderer.drawText(backend(c), mGeometry, mFormatter,
+                getDisplayedValue(), mUnitChars, mTextBuffer);
+
+        if (mPartialInvalidation)
+            mDrawnTextWidth = mTextPaint.measureText(mTextBuffer, 0, length);
     }
 
     /**
-     * set the starting angle for the view
+     * draws the custom text in the center of the view
      * 
-     * @param angle
+     * @param c
      */
-    public void setStartAngle(float angle) {
-        mStartAngle = angle;
+    private void drawCustomText(Canvas c) {
+
+        int index = getCustomTextIndex();
+
+        mCustomText.draw(c, mTextPaint, index, mGeometry.centerX, mGeometry.centerY);
+
+        if (mPartialInvalidation)
+            mDrawnTextWidth = mCustomText.getWidth(index);
     }
 
     /**
-     * returns the current animation status of the view
+     * returns the index of the custom text for the displayed value, clamped
+     * to the available texts, and lays the texts out if needed
      * 
      * @return
      */
-    public float getPhase() {
-        return mPhase;
+    private int getCustomTextIndex() {
+        mCustomText.layout(mTextPaint, mGeometry.innerRadius, mCustomTextAutoFit);
+        return mCustomText.indexForValue(getDisplayedValue(), mStepSize);
     }
 
     /**
-     * DONT USE THIS METHOD
+     * draws the background circle with less alpha
      * 
-     * @param phase
+     * @param c
      */
-    public void setPhase(float phase) {
-        mPhase = phase;
-        invalidate();
+    private void drawWholeCircle(Canvas c) {
+        CircleRenderer.drawWholeCircle(backend(c), mGeometry);
     }
 
     /**
-     * set this to true to draw the inner circle, default: true
+     * draws the inner circle of the view
      * 
-     * @param enabled
+     * @param c
      */
-    public void setDrawInnerCircle(boolean enabled) {
-        mDrawInner = enabled;
+    private void drawInnerCircle(Canvas c) {
+        CircleRenderer.drawInnerCircle(backend(c), mGeometry);
     }
 
     /**
-     * returns true if drawing the inner circle is enabled, false if not
+     * returns the render backend, set up for drawing onto the given canvas
+     * with the current paints
      * 
+     * @param c
      * @return
      */
-    public boolean isDrawInnerCircleEnabled() {
-        return mDrawInner;
+    private CanvasRenderBackend backend(Canvas c) {
+        mBackend.begin(c, mArcPaint, mInnerCirclePaint, mTextPaint, mDimAlpha);
+        return mBackend;
     }
 
     /**
-     * set the drawing of the center text to be enabled or not
+     * draws the actual value slice/arc
      * 
-     * @param enabled
+     * @param c
      */
-    public void setDrawText(boolean enabled) {
-        mDrawText = enabled;
+    private void drawValue(Canvas c) {
+
+        mArcPaint.setAlpha(255);
+
+        if (mSegmentCount > 0) {
+            drawSegments(c, false);
+            return;
+        }
+
+        Path cached = getCachedValuePath(false);
+
+        if (cached != null) {
+            c.drawPath(cached, mArcPaint);
+            return;
+        }
+
+        CircleRenderer.drawValue(backend(c), mGeometry, mStartAngle, getDisplayedAngle());
+
+        // Log.i(LOG_TAG, "CircleBox bounds: " + mCircleBox.toString() +
+        // ", Angle: " + angle + ", StartAngle: " + mStartAngle);
     }
 
     /**
-     * returns true if drawing the text in the center is enabled
+     * draws the value as a ring segment that leaves out the inner circle, used
+     * on top of the cached static layer
      * 
-     * @return
+     * @param c
      */
-    public boolean isDrawTextEnabled() {
-        return mDrawText;
+    private void drawValueRing(Canvas c) {
+
+        mArcPaint.setAlpha(255);
+
+        float angle = getDisplayedAngle();
+
+        if (angle == 0f)
+            return;
+
+        if (mSegmentCount > 0) {
+            drawSegments(c, true);
+            return;
+        }
+
+        Path cached = getCachedValuePath(true);
+
+        if (cached != null) {
+            c.drawPath(cached, mArcPaint);
+            return;
+        }
+
+        buildValuePath(mValuePath, mStartAngle, angle, true);
+
+        c.drawPath(mValuePath, mArcPaint);
     }
 
     /**
-     * set the color of the arc
+     * Draws all segments shown with showSegments(...), scaled by the
+     * displayed angle, either as pie wedges or as ring segments.
      * 
-     * @param color
+     * @param c
+     * @param ring
      */
-    public void setColor(int color) {
-        mArcPaint.setColor(color);
-    }
+    private void drawSegments(Canvas c, boolean ring) {
 
-    /**
-     * set the size of the center text in dp
-     * 
+        float scale = mAngle == 0f ? 0f : getDisplayedAngle() / mAngle;
+
+        if (scale == 0f)
+            return;
+
+        int color = mArcPaint.getColor();
+        CanvasRenderBackend backend = ring ? null : backend(c);
+
+        float start = 0f;
+
+        for (int i = 0; i < mSegmentCount; i++) {
+
+            float end = mSegmentSweeps[i] * scale;
+
+            if (end != start) {
+                mArcPaint.setColor(mSegmentColors[i]);
+
+                if (ring) {
+                    buildValuePath(mValuePath, mStartAngle + start, end - start, true);
+                    c.drawPath(mValuePath, mArcPaint);
+                } else
+                    backend.drawValueArc(mGeometry.boxLeft, mGeometry.boxTop, mGeometry.boxRight,
+                            mGeometry.boxBottom, mStartAngle + start, end - start);
+            }
+
+            start = end;
+        }
+
+        mArcPaint.setColor(color);
+    }
+
+    /**
+     * Builds the outline of the value with the given start and sweep angle
+     * into the given path, either as a pie wedge like drawArc(...) or as a
+     * ring segment that leaves out the inner circle.
+     * 
+     * @param p
+     * @param start
+     * @param angle
+     * @param ring
+     */
+    private void buildValuePath(Path p, float start, float angle, boolean ring) {
+
+        CircleGeometry g = mGeometry;
+
+        p.rewind();
+
+        if (Math.abs(angle) >= 360f) {
+            p.addCircle(g.centerX, g.centerY, g.radius, Path.Direction.CW);
+
+            if (ring)
+                p.addCircle(g.centerX, g.centerY, g.innerRadius, Path.Direction.CCW);
+
+        } else if (ring) {
+            p.arcTo(mCircleBox, start, angle, true);
+            p.arcTo(mInnerBox, start + angle, -angle);
+            p.close();
+        } else {
+            p.moveTo(g.centerX, g.centerY);
+            p.arcTo(mCircleBox, start, angle);
+            p.close();
+        }
+    }
+
+    /**
+     * Returns the cached path of the displayed value if the path cache is
+     * enabled and the value sits exactly on a step, which is the case for
+     * settled and selected values. Builds and caches the path on a miss.
+     * Returns null while the value is between steps, e.g. during animations.
+     * 
+     * @param ring
+     * @return
+     */
+    private Path getCachedValuePath(boolean ring) {
+
+        if (mArcPathCache == null || mStepSize <= 0f || mMaxValue == 0f || mSegmentCount > 0)
+            return null;
+
+        float steps = getDisplayedValue() / mStepSize;
+        int index = Math.round(steps);
+
+        if (Math.abs(steps - index) > STEP_EPSILON)
+            return null;
+
+        // wedges and ring segments cannot share the cache
+        if (ring != mArcPathCacheRing) {
+            mArcPathCache.clear();
+            mArcPathCacheRing = ring;
+        }
+
+        Path p = mArcPathCache.get(index);
+
+        if (p == null) {
+            p = mArcPathCache.obtain(index);
+            buildValuePath(p, mStartAngle, getAngleForValue(index * mStepSize), ring);
+        }
+
+        return p;
+    }
+
+    /**
+     * removes all cached value paths, needs to be called whenever the geometry
+     * of the arc changes
+     */
+    private void clearArcPathCache() {
+        if (mArcPathCache != null)
+            mArcPathCache.clear();
+    }
+
+    /**
+     * Enables caching of the value arc per step index. Settled and selected
+     * values always sit on a step, so their arcs are then only built once and
+     * reused afterwards, which helps when dragging back and forth or showing
+     * the same values repeatedly. Has no effect with a stepsize of 0. Default:
+     * false
+     * 
+     * @param enabled
+     */
+    public void setArcPathCacheEnabled(boolean enabled) {
+        mArcPathCache = enabled ? new ArcPathCache(mArcPathCacheBytes) : null;
+    }
+
+    /**
+     * Sets the memory budget of the arc path cache in bytes, default 64 KB.
+     * The least recently used arcs are evicted when the budget is exceeded.
+     * 
+     * @param maxBytes
+     */
+    public void setArcPathCacheSize(int maxBytes) {
+        mArcPathCacheBytes = maxBytes;
+
+        if (mArcPathCache != null)
+            mArcPathCache = new ArcPathCache(maxBytes);
+    }
+
+    /**
+     * draws the cached static layer, renders it first if it is out of date
+     * 
+     * @param c
+     */
+    private void drawStaticLayer(Canvas c) {
+
+        int width = getWidth();
+        int height = getHeight();
+
+        if (width <= 0 || height <= 0)
+            return;
+
+        if (mStaticLayer == null || mStaticLayer.getWidth() != width
+                || mStaticLayer.getHeight() != height) {
+
+            if (mStaticLayer != null)
+                mStaticLayer.recycle();
+
+            mStaticLayer = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mStaticLayerCanvas = new Canvas(mStaticLayer);
+            mStaticLayerDirty = true;
+        }
+
+        if (mStaticLayerDirty) {
+            mStaticLayerDirty = false;
+
+            mStaticLayer.eraseColor(Color.TRANSPARENT);
+            renderStaticLayer(mStaticLayerCanvas);
+        }
+
+        c.drawBitmap(mStaticLayer, 0, 0, null);
+    }
+
+    /**
+     * renders everything that does not depend on the value into the given
+     * canvas
+     * 
+     * @param c
+     */
+    private void renderStaticLayer(Canvas c) {
+
+        drawWholeCircle(c);
+
+        if (mDrawTicks)
+            drawTicks(c);
+
+        if (mDrawInner)
+            drawInnerCircle(c);
+
+        if (mDrawTicks && mDrawTickLabels)
+            drawTickLabels(c);
+    }
+
+    /**
+     * marks the cached static layer as out of date
+     */
+    private void invalidateStaticLayer() {
+        mStaticLayerDirty = true;
+    }
+
+    /**
+     * marks the tick layout and the static layer as out of date
+     */
+    private void invalidateTicks() {
+        mTicksDirty = true;
+        invalidateStaticLayer();
+    }
+
+    /**
+     * draws the tick marks, lays them out first if they are out of date
+     * 
+     * @param c
+     */
+    private void drawTicks(Canvas c) {
+        ensureTicks();
+        mTicks.drawTicks(c, mTickPaint);
+    }
+
+    /**
+     * draws the scale labels at the major ticks
+     * 
+     * @param c
+     */
+    private void drawTickLabels(Canvas c) {
+        ensureTicks();
+        mTicks.drawLabels(c, mTickLabelPaint);
+    }
+
+    /**
+     * lays out the ticks and labels if the geometry, the scale or the tick
+     * settings changed since the last layout
+     */
+    private void ensureTicks() {
+
+        if (!mTicksDirty)
+            return;
+
+        mTicksDirty = false;
+
+        float band = mGeometry.radius - mGeometry.innerRadius;
+
+        mTicks.layout(mGeometry, mStartAngle, mMaxValue, mTickInterval > 0f ? mTickInterval
+                : mStepSize, mMajorTickEvery, band * 0.3f, band * 0.6f,
+                mDrawTickLabels ? mFormatter : null, mTextBuffer, mTickLabelPaint);
+    }
+
+    /**
+     * Set this to true to draw tick marks around the value bar, one at every
+     * tick interval (the stepsize by default). The ticks are part of the
+     * static layer, see setLayerCacheEnabled(...). Default: false
+     * 
+     * @param enabled
+     */
+    public void setDrawTicks(boolean enabled) {
+
+        if (enabled && mTickPaint == null) {
+            mTickPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            mTickPaint.setStyle(Style.STROKE);
+            mTickPaint.setColor(Color.WHITE);
+            mTickPaint.setStrokeWidth(Utils.convertDpToPixel(getResources(), 1f));
+        }
+
+        mDrawTicks = enabled;
+        invalidateTicks();
+        invalidate();
+    }
+
+    /**
+     * Set this to true to draw scale labels inside the inner circle at the
+     * major ticks, formatted with the value formatter. Default: false
+     * 
+     * @param enabled
+     */
+    public void setDrawTickLabels(boolean enabled) {
+
+        if (enabled && mTickLabelPaint == null) {
+            mTickLabelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            mTickLabelPaint.setTextAlign(Align.CENTER);
+            mTickLabelPaint.setColor(Color.GRAY);
+            mTickLabelPaint.setTextSize(Utils.convertDpToPixel(getResources(), 10f));
+        }
+
+        mDrawTickLabels = enabled;
+        invalidateTicks();
+        invalidate();
+    }
+
+    /**
+     * sets the value between two ticks and every how many ticks a major
+     * (longer, labeled) tick is drawn
+     * 
+     * @param interval value between two ticks, 0 to use the stepsize
+     * @param majorEvery 0 for no major ticks, default 5
+     */
+    public void setTickInterval(float interval, int majorEvery) {
+        mTickInterval = interval;
+        mMajorTickEvery = majorEvery;
+        invalidateTicks();
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateGeometry();
+    }
+
+    /**
+     * Enables caching of the static parts of the view (the dimmed background
+     * circle and the inner circle). They are then rendered once into a bitmap
+     * and only the value and text are drawn every frame. Default: false. If a
+     * paint set with setPaint(...) is modified later on, call setPaint(...)
+     * again to update the cache.
+     * 
+     * @param enabled
+     */
+    public void setLayerCacheEnabled(boolean enabled) {
+        mLayerCacheEnabled = enabled;
+
+        if (!enabled && mStaticLayer != null) {
+            mStaticLayer.recycle();
+            mStaticLayer = null;
+            mStaticLayerCanvas = null;
+        }
+
+        invalidateStaticLayer();
+        invalidate();
+    }
+
+    /**
+     * returns true if caching of the static layer is enabled
+     * 
+     * @return
+     */
+    public boolean isLayerCacheEnabled() {
+        return mLayerCacheEnabled;
+    }
+
+    /**
+     * rebuilds the geometry snapshot and the bounds of the view, needs to be
+     * called whenever the size, the value width or the text size changes
+     */
+    private void updateGeometry() {
+
+        CircleGeometry g = new CircleGeometry(getWidth(), getHeight(), mValueWidthPercent,
+                mTextPaint.descent());
+
+        mCircleBox.set(g.boxLeft, g.boxTop, g.boxRight, g.boxBottom);
+        mInnerBox.set(g.innerBoxLeft, g.innerBoxTop, g.innerBoxRight, g.innerBoxBottom);
+
+        mGeometry = g;
+
+        invalidateTicks();
+        clearArcPathCache();
+    }
+
+    /**
+     * returns the current geometry snapshot of the view
+     * 
+     * @return
+     */
+    public CircleGeometry getGeometry() {
+        return mGeometry;
+    }
+
+    /**
+     * shows the given value in the circle view
+     * 
+     * @param toShow
+     * @param total
+     * @param animated
+     */
+    public void showValue(float toShow, float total, boolean animated) {
+        mSegmentCount = 0;
+        applyValue(toShow, total, animated);
+    }
+
+    /**
+     * Shows several values as consecutive segments of the circle, each in its
+     * own color, e.g. used, reserved and free. The segments start at the start
+     * angle and follow each other clockwise, the center text shows their sum.
+     * The animation grows all segments together. Calling showValue(...)
+     * afterwards returns to a single value.
+     * 
+     * @param values the values of the segments
+     * @param colors the colors of the segments, same length as values
+     * @param total the maximum value
+     * @param animated
+     */
+    public void showSegments(float[] values, int[] colors, float total, boolean animated) {
+
+        if (values.length != colors.length)
+            throw new IllegalArgumentException("values and colors differ in length");
+
+        if (mSegmentSweeps.length < values.length) {
+            mSegmentSweeps = new float[values.length];
+            mSegmentColors = new int[values.length];
+        }
+
+        // accumulate the end angles once, drawing only scales them
+        float sum = 0f;
+
+        for (int i = 0; i < values.length; i++) {
+            sum += values[i];
+            mSegmentSweeps[i] = CircleMath.angleForValue(sum, total);
+            mSegmentColors[i] = colors[i];
+        }
+
+        mSegmentCount = values.length;
+        applyValue(sum, total, animated);
+    }
+
+    /**
+     * sets the value to show and starts or skips the animation
+     * 
+     * @param toShow
+     * @param total
+     * @param animated
+     */
+    private void applyValue(float toShow, float total, boolean animated) {
+
+        stopFling(false);
+
+        // distance of the running animation, its speed carries over
+        float oldSweep = mAngle - mFromAngle;
+
+        if (animated && mAnimateFromCurrent) {
+            mFromValue = getDisplayedValue();
+            mFromAngle = getDisplayedAngle();
+        }
+
+        if (total != mMaxValue) {
+            clearArcPathCache();
+            invalidateTicks();
+        }
+
+        mAngle = CircleMath.angleForValue(toShow, total);
+        mValue = toShow;
+        mMaxValue = total;
+
+        if (animated) {
+            if (mAnimateFromCurrent) {
+                float newSweep = mAngle - mFromAngle;
+                mPhase = 0f;
+
+                if (isAnimating())
+                    getDrawAnimator().retarget(newSweep != 0f ? oldSweep / newSweep : 0f);
+                else
+                    getDrawAnimator().start();
+            } else
+                startAnim();
+        } else {
+            cancelAnim();
+            mPhase = 1f;
+            invalidateValue();
+        }
+    }
+
+    /** bind(...) always animates to a changed value */
+    public static final int BIND_ANIMATE_ALWAYS = 0;
+
+    /**
+     * bind(...) animates only the first value after creation or
+     * onRecycled(), values bound later are shown right away
+     */
+    public static final int BIND_ANIMATE_ONCE = 1;
+
+    /**
+     * bind(...) shows the value right away if the view was detached from the
+     * window recently (e.g. scrolled out and back in quickly), and animates
+     * otherwise
+     */
+    public static final int BIND_SNAP_IF_RECENT = 2;
+
+    /**
+     * Shows the given value and style, meant for binding recycled views in
+     * lists. Unlike showValue(...), nothing is done if the value, maximum and
+     * style equal the current ones, so rebinding the same item causes no
+     * redraw and does not replay the animation. Whether a changed value is
+     * animated depends on the bind policy, see setBindPolicy(...).
+     * 
+     * @param toShow
+     * @param total
+     * @param style the style to apply, null to keep the current one
+     */
+    public void bind(float toShow, float total, CircleDisplayStyle style) {
+
+        if (style != null && style != mStyle && !style.equals(mStyle))
+            setStyle(style);
+
+        if (mBound && toShow == mValue && total == mMaxValue)
+            return;
+
+        boolean animated;
+
+        switch (mBindPolicy) {
+            case BIND_ANIMATE_ONCE:
+                animated = !mBound;
+                break;
+            case BIND_SNAP_IF_RECENT:
+                animated = mDetachedAt == 0
+                        || SystemClock.uptimeMillis() - mDetachedAt > mRecentDetachMillis;
+                break;
+            default:
+                animated = true;
+                break;
+        }
+
+        mBound = true;
+        showValue(toShow, total, animated);
+    }
+
+    /**
+     * Resets the view to its unbound state, call this when a list recycles
+     * the view. Stops running animations and pending selection updates; the
+     * style, paints and settings are kept, and so is the time of the last
+     * detach, see BIND_SNAP_IF_RECENT.
+     */
+    public void onRecycled() {
+
+        stopFling(false);
+        cancelAnim();
+        cancelSelectionUpdate();
+
+        // mDetachedAt is kept, lists detach, recycle and then rebind a view
+        mBound = false;
+        mSegmentCount = 0;
+
+        mValue = 0f;
+        mMaxValue = 0f;
+        mAngle = 0f;
+        mFromValue = 0f;
+        mFromAngle = 0f;
+        mPhase = 1f;
+    }
+
+    /**
+     * sets the policy deciding if bind(...) animates changed values, default
+     * BIND_ANIMATE_ALWAYS
+     * 
+     * @param policy e.g. CircleDisplay.BIND_SNAP_IF_RECENT
+     */
+    public void setBindPolicy(int policy) {
+        mBindPolicy = policy;
+    }
+
+    /**
+     * returns the policy deciding if bind(...) animates
+     * 
+     * @return
+     */
+    public int getBindPolicy() {
+        return mBindPolicy;
+    }
+
+    /**
+     * sets how long ago a detach from the window counts as recent for
+     * BIND_SNAP_IF_RECENT, default 1000 milliseconds
+     * 
+     * @param millis
+     */
+    public void setRecentDetachWindow(long millis) {
+        mRecentDetachMillis = millis;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mAttached = true;
+        updateSuspended();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mDetachedAt = SystemClock.uptimeMillis();
+        mAttached = false;
+        updateSuspended();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateSuspended();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateSuspended();
+    }
+
+    /**
+     * Suspends the drawing animation and the value feed while the view cannot
+     * be seen (detached, hidden, or its window is hidden) and resumes them
+     * once it can be seen again. The animation continues where it was
+     * suspended, the feed delivers its newest state.
+     */
+    private void updateSuspended() {
+
+        boolean suspend = !mAttached || getWindowVisibility() != VISIBLE || !isShown();
+
+        if (suspend == mSuspended)
+            return;
+
+        mSuspended = suspend;
+
+        if (suspend) {
+
+            stopFling(true);
+
+            // only count time in which frames would have been drawn
+            mSuspendedAt = isAnimating() || mValueFeed != null ? SystemClock.uptimeMillis()
+                    : 0;
+
+            if (mDrawAnimator != null)
+                mDrawAnimator.pause();
+            if (mValueFeed != null)
+                mValueFeed.pause();
+
+        } else {
+
+            if (mSuspendedAt != 0) {
+                mSkippedFrames += (long) ((SystemClock.uptimeMillis() - mSuspendedAt)
+                        * getRefreshRate() / 1000f);
+                mSuspendedAt = 0;
+            }
+
+            if (mDrawAnimator != null)
+                mDrawAnimator.resume();
+            if (mValueFeed != null)
+                mValueFeed.resume();
+        }
+    }
+
+    /**
+     * returns the refresh rate of the display the view is on, 60 if unknown
+     * 
+     * @return
+     */
+    private float getRefreshRate() {
+
+        Display display = getDisplay();
+
+        if (display == null || display.getRefreshRate() < 1f)
+            return 60f;
+
+        return display.getRefreshRate();
+    }
+
+    /**
+     * Returns the number of frames that were not drawn because the view
+     * could not be seen while it was animating or bound to a feed. Estimated
+     * from the suspended time and the refresh rate of the display.
+     * 
+     * @return
+     */
+    public long getSkippedFrameCount() {
+        return mSkippedFrames;
+    }
+
+    /**
+     * resets the count of skipped frames to 0
+     */
+    public void resetSkippedFrameCount() {
+        mSkippedFrames = 0;
+    }
+
+    /**
+     * returns true while the animation and the feed are suspended because the
+     * view cannot be seen
+     * 
+     * @return
+     */
+    public boolean isSuspended() {
+        return mSuspended;
+    }
+
+    /**
+     * Suspends or resumes the drawing animation of a display that is never
+     * attached to a window and therefore cannot tell whether it can be seen,
+     * used by the CircleDisplayTextureView for its offscreen display.
+     * 
+     * @param suspended
+     */
+    void setSuspendedOffscreen(boolean suspended) {
+
+        mSuspended = suspended;
+
+        if (mDrawAnimator == null)
+            return;
+
+        if (suspended)
+            mDrawAnimator.pause();
+        else
+            mDrawAnimator.resume();
+    }
+
+    /**
+     * Binds the view to the given feed. Values published to the feed from any
+     * thread are shown without animation, at most once per frame. Must be
+     * called on the UI thread, set to null to unbind.
+     * 
+     * @param feed
+     */
+    public void setValueFeed(ValueFeed feed) {
+
+        if (mValueFeed != null)
+            mValueFeed.unbind();
+
+        mValueFeed = feed;
+
+        if (feed != null) {
+            feed.bind(mFeedConsumer);
+
+            if (mSuspended)
+                feed.pause();
+        }
+    }
+
+    /**
+     * returns the feed the view is bound to, null if none
+     * 
+     * @return
+     */
+    public ValueFeed getValueFeed() {
+        return mValueFeed;
+    }
+
+    /**
+     * Sets the unit that is displayed next to the value in the center of the
+     * view. Default "%". Could be "€" or "$" or left blank or whatever it is
+     * you display.
+     * 
+     * @param unit
+     */
+    public void setUnit(String unit) {
+        mUnitChars = unit == null ? new char[0] : unit.toCharArray();
+        ensureTextBuffer();
+    }
+
+    /**
+     * Returns the currently displayed value from the view. Depending on the
+     * used method to show the value, this value can be percent or actual value.
+     * 
+     * @return
+     */
+    public float getValue() {
+        return mValue;
+    }
+
+    /**
+     * Returns the value that is currently drawn, which differs from getValue()
+     * while an animation is running.
+     * 
+     * @return
+     */
+    public float getDisplayedValue() {
+        return mFromValue + (mValue - mFromValue) * mPhase;
+    }
+
+    /**
+     * returns the sweep angle of the value arc that is currently drawn
+     * 
+     * @return
+     */
+    private float getDisplayedAngle() {
+        return mFromAngle + (mAngle - mFromAngle) * mPhase;
+    }
+
+    /**
+     * Set this to true to let animated showValue(...) calls continue from the
+     * currently displayed value instead of building up the bar from zero. A
+     * value shown while an animation is still running becomes the new target
+     * without jumping back or restarting the ease: the bar keeps its speed
+     * and eases out over the remaining time, at least half the duration.
+     * Default: false
+     * 
+     * @param enabled
+     */
+    public void setAnimateFromCurrent(boolean enabled) {
+        mAnimateFromCurrent = enabled;
+    }
+
+    /**
+     * returns true if animations continue from the currently displayed value
+     * 
+     * @return
+     */
+    public boolean isAnimateFromCurrentEnabled() {
+        return mAnimateFromCurrent;
+    }
+
+    /**
+     * starts the drawing animation, building up the bar from zero
+     */
+    public void startAnim() {
+        mFromValue = 0f;
+        mFromAngle = 0f;
+        mPhase = 0f;
+        getDrawAnimator().start();
+    }
+
+    /**
+     * returns the animator of the view, creates it on first use
+     * 
+     * @return
+     */
+    private PhaseAnimator getDrawAnimator() {
+
+        if (mDrawAnimator == null) {
+            mDrawAnimator = new PhaseAnimator(new PhaseAnimator.PhaseListener() {
+
+                @Override
+                public void onPhaseUpdate(float phase) {
+                    setPhase(phase);
+                }
+            });
+            mDrawAnimator.setDuration(mAnimDuration);
+
+            if (mSuspended)
+                mDrawAnimator.pause();
+        }
+
+        return mDrawAnimator;
+    }
+
+    /**
+     * stops a running drawing animation where it is
+     */
+    private void cancelAnim() {
+        if (mDrawAnimator != null)
+            mDrawAnimator.cancel();
+    }
+
+    /**
+     * returns true while a drawing animation is running
+     * 
+     * @return
+     */
+    public boolean isAnimating() {
+        return mDrawAnimator != null && mDrawAnimator.isRunning();
+    }
+
+    /**
+     * jumps to the end of a running drawing animation
+     */
+    void endAnim() {
+        cancelAnim();
+        mPhase = 1f;
+    }
+
+    /**
+     * set the duration of the drawing animation in milliseconds
+     * 
+     * @param durationmillis
+     */
+    public void setAnimDuration(int durationmillis) {
+        mAnimDuration = durationmillis;
+
+        if (mDrawAnimator != null)
+            mDrawAnimator.setDuration(durationmillis);
+    }
+
+    /**
+     * returns the diameter of the drawn circle/arc
+     * 
+     * @return
+     */
+    public float getDiameter() {
+        return mGeometry.diameter;
+    }
+
+    /**
+     * returns the radius of the drawn circle
+     * 
+     * @return
+     */
+    public float getRadius() {
+        return mGeometry.radius;
+    }
+
+    /**
+     * set the starting angle for the view
+     * 
+     * @param angle
+     */
+    public void setStartAngle(float angle) {
+        mStartAngle = angle;
+        clearArcPathCache();
+        invalidateTicks();
+    }
+
+    /**
+     * returns the current animation status of the view
+     * 
+     * @return
+     */
+    public float getPhase() {
+        return mPhase;
+    }
+
+    /**
+     * DONT USE THIS METHOD
+     * 
+     * @param phase
+     */
+    public void setPhase(float phase) {
+        mPhase = phase;
+        invalidateValue();
+    }
+
+    /**
+     * set this to true to draw the inner circle, default: true
+     * 
+     * @param enabled
+     */
+    public void setDrawInnerCircle(boolean enabled) {
+        mDrawInner = enabled;
+        invalidateStaticLayer();
+    }
+
+    /**
+     * returns true if drawing the inner circle is enabled, false if not
+     * 
+     * @return
+     */
+    public boolean isDrawInnerCircleEnabled() {
+        return mDrawInner;
+    }
+
+    /**
+     * set the drawing of the center text to be enabled or not
+     * 
+     * @param enabled
+     */
+    public void setDrawText(boolean enabled) {
+        mDrawText = enabled;
+    }
+
+    /**
+     * returns true if drawing the text in the center is enabled
+     * 
+     * @return
+     */
+    public boolean isDrawTextEnabled() {
+        return mDrawText;
+    }
+
+    /**
+     * set the color of the arc
+     * 
+     * @param color
+     */
+    public void setColor(int color) {
+        mArcPaint.setColor(color);
+        invalidateStaticLayer();
+    }
+
+    /**
+     * Applies the given style to the view. The style is immutable, so a single
+     * instance can be shared by many views. Setters called afterwards override
+     * single properties of the view again.
+     * 
+     * @param style
+     */
+    public void setStyle(CircleDisplayStyle style) {
+
+        mStyle = style;
+
+        mArcPaint.setColor(style.getColor());
+        mInnerCirclePaint.setColor(style.getInnerColor());
+        mTextPaint.setColor(style.getTextColor());
+        mTextPaint.setTextSize(Utils.convertDpToPixel(getResources(), style.getTextSize()));
+        mTextPaint.setTypeface(style.getTypeface());
+        mValueWidthPercent = style.getValueWidthPercent();
+        mDimAlpha = style.getDimAlpha();
+
+        updateGeometry();
+        invalidate();
+    }
+
+    /**
+     * returns the style that was last applied with setStyle(...), null if none
+     * 
+     * @return
+     */
+    public CircleDisplayStyle getStyle() {
+        return mStyle;
+    }
+
+    /**
+     * set the size of the center text in dp
+     * 
      * @param size
      */
     public void setTextSize(float size) {
         mTextPaint.setTextSize(Utils.convertDpToPixel(getResources(), size));
+        updateGeometry();
     }
 
     /**
@@ -414,17 +1661,39 @@ public class CircleDisplay extends View implements OnGestureListener {
      */
     public void setValueWidthPercent(float percentFromTotalWidth) {
         mValueWidthPercent = percentFromTotalWidth;
+        updateGeometry();
     }
 
     /**
      * Set an array of custom texts to be drawn instead of the value in the
      * center of the CircleDisplay. If set to null, the custom text will be
      * reset and the value will be drawn. Make sure the length of the array corresponds with the maximum number of steps (set with setStepSize(float stepsize).
+     * Values beyond the end of the array show the last text. The texts are
+     * measured once, not while drawing.
      * 
      * @param custom
      */
     public void setCustomText(String[] custom) {
-        mCustomText = custom;
+
+        mCustomText = custom == null ? null : new CustomTextTable(custom.clone());
+
+        if (custom != null && mStepSize > 0f && custom.length <= (int) (mMaxValue / mStepSize))
+            Log.w(LOG_TAG, "Custom text array not long enough, " + custom.length
+                    + " texts for " + ((int) (mMaxValue / mStepSize) + 1) + " steps.");
+
+        invalidate();
+    }
+
+    /**
+     * If enabled, one text size is chosen for all custom texts so that each
+     * of them fits inside the inner circle. The text size of the view is the
+     * largest size used. Default: true
+     * 
+     * @param enabled
+     */
+    public void setCustomTextAutoFit(boolean enabled) {
+        mCustomTextAutoFit = enabled;
+        invalidate();
     }
 
     /**
@@ -433,15 +1702,54 @@ public class CircleDisplay extends View implements OnGestureListener {
      * @param digits
      */
     public void setFormatDigits(int digits) {
+        setValueFormatter(new FixedPointValueFormatter(digits));
+    }
 
-        StringBuffer b = new StringBuffer();
-        for (int i = 0; i < digits; i++) {
-            if (i == 0)
-                b.append(".");
-            b.append("0");
-        }
+    /**
+     * Sets the formatter used for the value in the center of the view. Calling
+     * setFormatDigits(...) afterwards replaces it with the default
+     * FixedPointValueFormatter.
+     * 
+     * @param formatter
+     */
+    public void setValueFormatter(ValueFormatter formatter) {
+        mFormatter = formatter;
+        ensureTextBuffer();
+
+        if (mDrawTickLabels)
+            invalidateTicks();
+    }
+
+    /**
+     * returns the formatter used for the value in the center of the view
+     * 
+     * @return
+     */
+    public ValueFormatter getValueFormatter() {
+        return mFormatter;
+    }
+
+    /**
+     * Returns an editor that collects changes to several properties and
+     * applies them at once with apply(), with at most one geometry update,
+     * one formatter rebuild and one invalidate. Use it when changing many
+     * properties at a time, e.g. when restyling gauges on a theme change.
+     * 
+     * @return
+     */
+    public Editor edit() {
+        return new Editor();
+    }
 
-        mFormatValue = new DecimalFormat("###,###,###,##0" + b.toString());
+    /**
+     * makes sure the text buffer is large enough for the current formatter
+     * and unit
+     */
+    private void ensureTextBuffer() {
+        int length = mFormatter.getMaxLength(mUnitChars.length);
+
+        if (mTextBuffer.length < length)
+            mTextBuffer = new char[length];
     }
 
     /**
@@ -452,6 +1760,7 @@ public class CircleDisplay extends View implements OnGestureListener {
      */
     public void setDimAlpha(int alpha) {
         mDimAlpha = alpha;
+        invalidateStaticLayer();
     }
 
     /** paint used for drawing the text */
@@ -463,6 +1772,12 @@ public class CircleDisplay extends View implements OnGestureListener {
     /** paint representing the inner (by default white) area */
     public static final int PAINT_INNER = 3;
 
+    /** paint used for drawing the tick marks */
+    public static final int PAINT_TICKS = 4;
+
+    /** paint used for drawing the scale labels */
+    public static final int PAINT_TICK_LABELS = 5;
+
     /**
      * sets the given paint object to be used instead of the original/default
      * one
@@ -481,8 +1796,18 @@ public class CircleDisplay extends View implements OnGestureListener {
                 break;
             case PAINT_TEXT:
                 mTextPaint = p;
+                updateGeometry();
+                break;
+            case PAINT_TICKS:
+                mTickPaint = p;
+                break;
+            case PAINT_TICK_LABELS:
+                mTickLabelPaint = p;
+                invalidateTicks();
                 break;
         }
+
+        invalidateStaticLayer();
     }
 
     /**
@@ -496,85 +1821,277 @@ public class CircleDisplay extends View implements OnGestureListener {
      */
     public void setStepSize(float stepsize) {
         mStepSize = stepsize;
+        clearArcPathCache();
+        invalidateTicks();
+    }
+
+    /**
+     * returns the current stepsize of the display, default 1f
+     * 
+     * @return
+     */
+    public float getStepSize() {
+        return mStepSize;
+    }
+
+    /**
+     * returns the center point of the view in pixels
+     * 
+     * @return
+     */
+    public PointF getCenter() {
+        return new PointF(mGeometry.centerX, mGeometry.centerY);
+    }
+
+    /**
+     * writes the center point of the view in pixels into the given PointF,
+     * use this instead of getCenter() to avoid allocations
+     * 
+     * @param out
+     * @return
+     */
+    public PointF getCenter(PointF out) {
+        out.set(mGeometry.centerX, mGeometry.centerY);
+        return out;
+    }
+
+    /**
+     * Enable touch gestures on the circle-display. If enabled, selecting values
+     * onTouch() is possible. Set a SelectionListener to retrieve selected
+     * values. Do not forget to set a value before selecting values. By default
+     * the maxvalue is 0f and therefore nothing can be selected.
+     * 
+     * @param enabled
+     */
+    public void setTouchEnabled(boolean enabled) {
+        mTouchEnabled = enabled;
+    }
+
+    /**
+     * returns true if touch-gestures are enabled, false if not
+     * 
+     * @return
+     */
+    public boolean isTouchEnabled() {
+        return mTouchEnabled;
+    }
+
+    /**
+     * set a selection listener for the circle-display that is called whenever a
+     * value is selected onTouch()
+     * 
+     * @param l
+     */
+    public void setSelectionListener(SelectionListener l) {
+        mListener = l;
+        mMissingListenerLogged = false;
+    }
+
+    /** listener called when a value has been selected on touch */
+    private SelectionListener mListener;
+
+    /** if enabled, all samples of a touch event are tracked continuously */
+    private boolean mContinuousSelection = false;
+
+    /** true while a continuous selection is tracking the touch angle */
+    private boolean mTrackingAngle = false;
+
+    /** continuously tracked touch angle, between 0 and 360 */
+    private float mTrackedAngle = 0f;
+
+    /** angle of the last tracked touch sample */
+    private float mLastRawAngle = 0f;
+
+    /** flings slower than this, in degrees per second, settle right away */
+    private static final float MIN_FLING_VELOCITY = 15f;
+
+    /** if enabled, flinging along the bar keeps the value spinning */
+    private boolean mFlingEnabled = false;
+
+    /** decay rate of the fling velocity per second */
+    private float mFlingFriction = 2.5f;
+
+    /** true while a fling is running */
+    private boolean mFlinging = false;
+
+    /** angle of the running fling, between 0 and 360 */
+    private float mFlingAngle = 0f;
+
+    /** angular velocity of the running fling in degrees per second */
+    private float mFlingVelocity = 0f;
+
+    /** frame time of the last fling frame, -1 before the first frame */
+    private long mFlingFrameNanos = -1;
+
+    /** advances the fling every frame until it has settled */
+    private final Choreographer.FrameCallback mFlingCallback = new Choreographer.FrameCallback() {
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            stepFling(frameTimeNanos);
+        }
+    };
+
+    /** flag that indicates if the missing listener has already been logged */
+    private boolean mMissingListenerLogged = false;
+
+    /**
+     * if enabled, selection updates are delivered at most once per frame and
+     * only if the selected value changed
+     */
+    private boolean mCoalesceSelectionUpdates = false;
+
+    /** minimum time between two coalesced selection updates in milliseconds */
+    private long mSelectionUpdateInterval = 0;
+
+    /** true if a selection update is waiting for the next frame */
+    private boolean mSelectionUpdatePending = false;
+
+    /** value of the last delivered selection update */
+    private float mLastDeliveredSelection = Float.NaN;
+
+    /** frame time of the last delivered selection update */
+    private long mLastSelectionDeliveryNanos = 0;
+
+    /** frame callback delivering coalesced selection updates */
+    private final Choreographer.FrameCallback mSelectionFrameCallback = new Choreographer.FrameCallback() {
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+
+            if (!mSelectionUpdatePending)
+                return;
+
+            // wait for the interval to pass, the latest value is delivered
+            // then
+            if (frameTimeNanos - mLastSelectionDeliveryNanos < mSelectionUpdateInterval * 1000000L) {
+                Choreographer.getInstance().postFrameCallback(this);
+                return;
+            }
+
+            mSelectionUpdatePending = false;
+
+            if (mValue == mLastDeliveredSelection)
+                return;
+
+            mLastDeliveredSelection = mValue;
+            mLastSelectionDeliveryNanos = frameTimeNanos;
+
+            if (mListener != null)
+                mListener.onSelectionUpdate(mValue, mMaxValue);
+        }
+    };
+
+    /**
+     * Set this to true to deliver onSelectionUpdate(...) callbacks at most once
+     * per frame, and only when the selected value actually changed, instead of
+     * on every touch event. onValueSelected(...) is always delivered. Default:
+     * false
+     * 
+     * @param enabled
+     */
+    public void setCoalesceSelectionUpdates(boolean enabled) {
+        mCoalesceSelectionUpdates = enabled;
+
+        if (!enabled)
+            cancelSelectionUpdate();
     }
 
     /**
-     * returns the current stepsize of the display, default 1f
+     * returns true if selection updates are coalesced
      * 
      * @return
      */
-    public float getStepSize() {
-        return mStepSize;
+    public boolean isCoalesceSelectionUpdatesEnabled() {
+        return mCoalesceSelectionUpdates;
     }
 
     /**
-     * returns the center point of the view in pixels
+     * Sets the minimum time in milliseconds between two coalesced selection
+     * updates, the latest selected value is delivered once it has passed. Only
+     * used when setCoalesceSelectionUpdates(true) is set. Default: 0, meaning
+     * once per frame
      * 
-     * @return
+     * @param millis
      */
-    public PointF getCenter() {
-        return new PointF(getWidth() / 2, getHeight() / 2);
+    public void setSelectionUpdateInterval(long millis) {
+        mSelectionUpdateInterval = millis;
     }
 
     /**
-     * Enable touch gestures on the circle-display. If enabled, selecting values
-     * onTouch() is possible. Set a SelectionListener to retrieve selected
-     * values. Do not forget to set a value before selecting values. By default
-     * the maxvalue is 0f and therefore nothing can be selected.
-     * 
-     * @param enabled
+     * delivers an update of the selected value to the listener, directly or on
+     * the next frame depending on the delivery mode
      */
-    public void setTouchEnabled(boolean enabled) {
-        mTouchEnabled = enabled;
+    private void dispatchSelectionUpdate() {
+
+        if (!mCoalesceSelectionUpdates) {
+            if (mListener != null)
+                mListener.onSelectionUpdate(mValue, mMaxValue);
+            return;
+        }
+
+        if (!mSelectionUpdatePending) {
+            mSelectionUpdatePending = true;
+            Choreographer.getInstance().postFrameCallback(mSelectionFrameCallback);
+        }
     }
 
     /**
-     * returns true if touch-gestures are enabled, false if not
-     * 
-     * @return
+     * delivers the final selected value to the listener, dropping any pending
+     * update
      */
-    public boolean isTouchEnabled() {
-        return mTouchEnabled;
+    private void dispatchValueSelected() {
+
+        cancelSelectionUpdate();
+
+        mLastDeliveredSelection = mValue;
+
+        if (mListener != null)
+            mListener.onValueSelected(mValue, mMaxValue);
     }
 
     /**
-     * set a selection listener for the circle-display that is called whenever a
-     * value is selected onTouch()
-     * 
-     * @param l
+     * drops a pending coalesced selection update
      */
-    public void setSelectionListener(SelectionListener l) {
-        mListener = l;
-    }
+    private void cancelSelectionUpdate() {
 
-    /** listener called when a value has been selected on touch */
-    private SelectionListener mListener;
+        if (mSelectionUpdatePending) {
+            mSelectionUpdatePending = false;
+            Choreographer.getInstance().removeFrameCallback(mSelectionFrameCallback);
+        }
+    }
 
-    /** gesturedetector for recognizing single-taps */
+    /** gesturedetector for recognizing single-taps, created on first touch */
     private GestureDetector mGestureDetector;
 
     @Override
     public boolean onTouchEvent(MotionEvent e) {
         if (mTouchEnabled) {
 
-            if (mListener == null)
+            if (mListener == null && !mMissingListenerLogged) {
+                mMissingListenerLogged = true;
                 Log.w(LOG_TAG,
                         "No SelectionListener specified. Use setSelectionListener(...) to set a listener for callbacks when selecting values.");
+            }
+
+            int action = e.getActionMasked();
+
+            // every gesture starts a new continuous selection
+            if (action == MotionEvent.ACTION_DOWN)
+                mTrackingAngle = false;
+
+            if (mGestureDetector == null)
+                mGestureDetector = new GestureDetector(getContext(), this);
 
             // if the detector recognized a gesture, consume it
-            if (mGestureDetector.onTouchEvent(e))
-                return true;
+            boolean consumed = mGestureDetector.onTouchEvent(e);
 
             float x = e.getX();
             float y = e.getY();
 
-            // get the distance from the touch to the center of the view
-            float distance = distanceToCenter(x, y);
-            float r = getRadius();
-
             // touch gestures only work when touches are made exactly on the
             // bar/arc
-            if (distance >= r - r * mValueWidthPercent / 100f && distance < r) {
+            if (!consumed && CircleMath.isInRing(mGeometry, x, y)) {
 
                 switch (e.getAction()) {
 
@@ -584,18 +2101,24 @@ public class CircleDisplay extends View implements OnGestureListener {
                 // break;
                     case MotionEvent.ACTION_MOVE:
 
-                        updateValue(x, y);
-                        invalidate();
-                        if (mListener != null)
-                            mListener.onSelectionUpdate(mValue, mMaxValue);
+                        if (mContinuousSelection)
+                            updateValueContinuous(e);
+                        else
+                            updateValue(x, y);
+                        invalidateValue();
+                        dispatchSelectionUpdate();
                         break;
                     case MotionEvent.ACTION_UP:
-                        if (mListener != null)
-                            mListener.onValueSelected(mValue, mMaxValue);
+                        dispatchValueSelected();
                         break;
                 }
             }
 
+            // reset after the detector, so onFling(...) starts from the
+            // tracked angle of the gesture
+            if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL)
+                mTrackingAngle = false;
+
             return true;
         }
         else
@@ -612,10 +2135,84 @@ public class CircleDisplay extends View implements OnGestureListener {
     private void updateValue(float x, float y) {
 
         // calculate the touch-angle
-        float angle = getAngleForPoint(x, y);
+        selectAngle(getAngleForPoint(x, y));
+    }
+
+    /**
+     * Updates the display with all touch positions of the given event,
+     * including the historical ones batched since the last event. The angle is
+     * tracked continuously so that moving across the top of the circle stops
+     * at the minimum or maximum instead of jumping to the other end. Only the
+     * final angle of the batch is resolved into a value.
+     * 
+     * @param e
+     */
+    private void updateValueContinuous(MotionEvent e) {
+
+        CircleGeometry g = mGeometry;
+        int historySize = e.getHistorySize();
+
+        for (int i = 0; i <= historySize; i++) {
+
+            float x = i < historySize ? e.getHistoricalX(i) : e.getX();
+            float y = i < historySize ? e.getHistoricalY(i) : e.getY();
+
+            float raw = CircleMath.angleForPoint(g, x, y);
+
+            if (!mTrackingAngle) {
+                mTrackingAngle = true;
+                mTrackedAngle = raw;
+            } else {
+                mTrackedAngle += CircleMath.angleDelta(mLastRawAngle, raw);
+
+                if (mTrackedAngle < 0f)
+                    mTrackedAngle = 0f;
+                else if (mTrackedAngle > 360f)
+                    mTrackedAngle = 360f;
+            }
+
+            mLastRawAngle = raw;
+        }
+
+        selectAngle(mTrackedAngle);
+    }
+
+    /**
+     * Set this to true to use all touch samples of an event, including the
+     * batched historical ones, and to track the touch angle continuously.
+     * Dragging across the top of the circle then stops at the minimum or
+     * maximum value instead of jumping to the other end. Default: false
+     * 
+     * @param enabled
+     */
+    public void setContinuousSelection(boolean enabled) {
+        mContinuousSelection = enabled;
+        mTrackingAngle = false;
+    }
+
+    /**
+     * returns true if continuous selection is enabled
+     * 
+     * @return
+     */
+    public boolean isContinuousSelectionEnabled() {
+        return mContinuousSelection;
+    }
+
+    /**
+     * sets the selected value to the one represented by the given angle,
+     * takes stepsize into consideration
+     * 
+     * @param angle
+     */
+    private void selectAngle(float angle) {
+
+        // a selection ends any running animation at the selected value
+        cancelAnim();
+        mPhase = 1f;
 
         // calculate the new value depending on angle
-        float newVal = mMaxValue * angle / 360f;
+        float newVal = CircleMath.valueForAngle(angle, mMaxValue);
 
         // if no stepsize
         if (mStepSize == 0f) {
@@ -624,37 +2221,153 @@ public class CircleDisplay extends View implements OnGestureListener {
             return;
         }
 
-        float remainder = newVal % mStepSize;
-
-        // check if the new value is closer to the next, or the previous
-        if (remainder <= mStepSize / 2f) {
-
-            newVal = newVal - remainder;
-        } else {
-            newVal = newVal - remainder + mStepSize;
-        }
+        newVal = CircleMath.snapToStep(newVal, mStepSize);
 
         // set the new values
         mAngle = getAngleForValue(newVal);
         mValue = newVal;
     }
 
+    /**
+     * Starts spinning the value from the current one with the given angular
+     * velocity. The fling runs on vsync, decays with the fling friction and
+     * settles on a step.
+     * 
+     * @param velocity degrees per second, positive is clockwise
+     */
+    private void startFling(float velocity) {
+
+        stopFling(false);
+        cancelAnim();
+        mPhase = 1f;
+
+        mFlingAngle = mTrackingAngle ? mTrackedAngle : mAngle;
+        mFlingVelocity = velocity;
+        mFlingFrameNanos = -1;
+        mFlinging = true;
+
+        Choreographer.getInstance().postFrameCallback(mFlingCallback);
+    }
+
+    /**
+     * advances the fling to the given frame time, settles it once it is slow
+     * enough or reaches the minimum or maximum
+     * 
+     * @param frameTimeNanos
+     */
+    private void stepFling(long frameTimeNanos) {
+
+        if (!mFlinging)
+            return;
+
+        if (mFlingFrameNanos >= 0) {
+
+            float dt = (frameTimeNanos - mFlingFrameNanos) / 1000000000f;
+
+            mFlingAngle += mFlingVelocity * dt;
+            mFlingVelocity *= (float) Math.exp(-mFlingFriction * dt);
+
+            if (mFlingAngle <= 0f) {
+                mFlingAngle = 0f;
+                mFlingVelocity = 0f;
+            } else if (mFlingAngle >= 360f) {
+                mFlingAngle = 360f;
+                mFlingVelocity = 0f;
+            }
+        }
+
+        mFlingFrameNanos = frameTimeNanos;
+
+        float previous = mValue;
+
+        selectAngle(mFlingAngle);
+        invalidateValue();
+
+        if (Math.abs(mFlingVelocity) < MIN_FLING_VELOCITY) {
+
+            // the selected value already sits on a step
+            mFlinging = false;
+            dispatchValueSelected();
+            return;
+        }
+
+        if (mValue != previous)
+            dispatchSelectionUpdate();
+
+        Choreographer.getInstance().postFrameCallback(mFlingCallback);
+    }
+
+    /**
+     * stops a running fling where it is
+     * 
+     * @param dispatch if true, the value is reported as selected
+     */
+    private void stopFling(boolean dispatch) {
+
+        if (!mFlinging)
+            return;
+
+        mFlinging = false;
+        Choreographer.getInstance().removeFrameCallback(mFlingCallback);
+
+        if (dispatch)
+            dispatchValueSelected();
+    }
+
+    /**
+     * Set this to true to keep the value spinning after a fast swipe along
+     * the bar. The fling slows down with the fling friction and settles on a
+     * step, selection updates are reported every frame and onValueSelected(...)
+     * once it has settled. Default: false
+     * 
+     * @param enabled
+     */
+    public void setFlingEnabled(boolean enabled) {
+        mFlingEnabled = enabled;
+
+        if (!enabled)
+            stopFling(true);
+    }
+
+    /**
+     * returns true if flinging is enabled
+     * 
+     * @return
+     */
+    public boolean isFlingEnabled() {
+        return mFlingEnabled;
+    }
+
+    /**
+     * sets how fast a fling slows down, the velocity decays by this rate per
+     * second, default 2.5 (higher values stop sooner)
+     * 
+     * @param friction
+     */
+    public void setFlingFriction(float friction) {
+        mFlingFriction = friction;
+    }
+
+    /**
+     * returns true while a fling is running
+     * 
+     * @return
+     */
+    public boolean isFlinging() {
+        return mFlinging;
+    }
+
     @Override
     public boolean onSingleTapUp(MotionEvent e) {
 
-        // get the distance from the touch to the center of the view
-        float distance = distanceToCenter(e.getX(), e.getY());
-        float r = getRadius();
-
         // touch gestures only work when touches are made exactly on the
         // bar/arc
-        if (distance >= r - r * mValueWidthPercent / 100f && distance < r) {
+        if (CircleMath.isInRing(mGeometry, e.getX(), e.getY())) {
 
             updateValue(e.getX(), e.getY());
-            invalidate();
+            invalidateValue();
 
-            if (mListener != null)
-                mListener.onValueSelected(mValue, mMaxValue);
+            dispatchValueSelected();
         }
 
         return true;
@@ -669,25 +2382,7 @@ public class CircleDisplay extends View implements OnGestureListener {
      * @return
      */
     public float getAngleForPoint(float x, float y) {
-
-        PointF c = getCenter();
-
-        double tx = x - c.x, ty = y - c.y;
-        double length = Math.sqrt(tx * tx + ty * ty);
-        double r = Math.acos(ty / length);
-
-        float angle = (float) Math.toDegrees(r);
-
-        if (x > c.x)
-            angle = 360f - angle;
-
-        angle = angle + 180;
-
-        // neutralize overflow
-        if (angle > 360f)
-            angle = angle - 360f;
-
-        return angle;
+        return CircleMath.angleForPoint(mGeometry, x, y);
     }
 
     /**
@@ -697,7 +2392,7 @@ public class CircleDisplay extends View implements OnGestureListener {
      * @return
      */
     public float getAngleForValue(float value) {
-        return value / mMaxValue * 360f;
+        return CircleMath.angleForValue(value, mMaxValue);
     }
 
     /**
@@ -707,7 +2402,7 @@ public class CircleDisplay extends View implements OnGestureListener {
      * @return
      */
     public float getValueForAngle(float angle) {
-        return angle / 360f * mMaxValue;
+        return CircleMath.valueForAngle(angle, mMaxValue);
     }
 
     /**
@@ -719,30 +2414,7 @@ public class CircleDisplay extends View implements OnGestureListener {
      * @return
      */
     public float distanceToCenter(float x, float y) {
-
-        PointF c = getCenter();
-
-        float dist = 0f;
-
-        float xDist = 0f;
-        float yDist = 0f;
-
-        if (x > c.x) {
-            xDist = x - c.x;
-        } else {
-            xDist = c.x - x;
-        }
-
-        if (y > c.y) {
-            yDist = y - c.y;
-        } else {
-            yDist = c.y - y;
-        }
-
-        // pythagoras
-        dist = (float) Math.sqrt(Math.pow(xDist, 2.0) + Math.pow(yDist, 2.0));
-
-        return dist;
+        return (float) Math.sqrt(CircleMath.distanceSquared(mGeometry, x, y));
     }
 
     /**
@@ -769,6 +2441,254 @@ public class CircleDisplay extends View implements OnGestureListener {
         public void onValueSelected(float val, float maxval);
     }
 
+    /**
+     * Collects property changes for the CircleDisplay and applies them at once,
+     * see CircleDisplay.edit(). Nothing changes before apply() is called.
+     */
+    public final class Editor {
+
+        private static final int COLOR = 1;
+        private static final int INNER_COLOR = 1 << 1;
+        private static final int TEXT_COLOR = 1 << 2;
+        private static final int TEXT_SIZE = 1 << 3;
+        private static final int VALUE_WIDTH = 1 << 4;
+        private static final int START_ANGLE = 1 << 5;
+        private static final int DIM_ALPHA = 1 << 6;
+        private static final int FORMAT_DIGITS = 1 << 7;
+        private static final int FORMATTER = 1 << 8;
+        private static final int UNIT = 1 << 9;
+        private static final int DRAW_INNER = 1 << 10;
+        private static final int DRAW_TEXT = 1 << 11;
+
+        /** flags of the properties that were changed */
+        private int mChanged = 0;
+
+        private int mColor;
+        private int mInnerColor;
+        private int mTextColor;
+        private float mTextSize;
+        private float mValueWidth;
+        private float mStart;
+        private int mAlpha;
+        private int mDigits;
+        private ValueFormatter mNewFormatter;
+        private String mUnit;
+        private boolean mInner;
+        private boolean mText;
+
+        private Editor() {
+        }
+
+        /**
+         * see CircleDisplay.setColor(...)
+         * 
+         * @param color
+         * @return
+         */
+        public Editor setColor(int color) {
+            mColor = color;
+            mChanged |= COLOR;
+            return this;
+        }
+
+        /**
+         * sets the color of the inner circle
+         * 
+         * @param color
+         * @return
+         */
+        public Editor setInnerColor(int color) {
+            mInnerColor = color;
+            mChanged |= INNER_COLOR;
+            return this;
+        }
+
+        /**
+         * sets the color of the center text
+         * 
+         * @param color
+         * @return
+         */
+        public Editor setTextColor(int color) {
+            mTextColor = color;
+            mChanged |= TEXT_COLOR;
+            return this;
+        }
+
+        /**
+         * see CircleDisplay.setTextSize(...)
+         * 
+         * @param size
+         * @return
+         */
+        public Editor setTextSize(float size) {
+            mTextSize = size;
+            mChanged |= TEXT_SIZE;
+            return this;
+        }
+
+        /**
+         * see CircleDisplay.setValueWidthPercent(...)
+         * 
+         * @param percentFromTotalWidth
+         * @return
+         */
+        public Editor setValueWidthPercent(float percentFromTotalWidth) {
+            mValueWidth = percentFromTotalWidth;
+            mChanged |= VALUE_WIDTH;
+            return this;
+        }
+
+        /**
+         * see CircleDisplay.setStartAngle(...)
+         * 
+         * @param angle
+         * @return
+         */
+        public Editor setStartAngle(float angle) {
+            mStart = angle;
+            mChanged |= START_ANGLE;
+            return this;
+        }
+
+        /**
+         * see CircleDisplay.setDimAlpha(...)
+         * 
+         * @param alpha
+         * @return
+         */
+        public Editor setDimAlpha(int alpha) {
+            mAlpha = alpha;
+            mChanged |= DIM_ALPHA;
+            return this;
+        }
+
+        /**
+         * see CircleDisplay.setFormatDigits(...), the formatter is only
+         * rebuilt on apply() if the number of digits changed
+         * 
+         * @param digits
+         * @return
+         */
+        public Editor setFormatDigits(int digits) {
+            mDigits = digits;
+            mChanged = (mChanged | FORMAT_DIGITS) & ~FORMATTER;
+            return this;
+        }
+
+        /**
+         * see CircleDisplay.setValueFormatter(...)
+         * 
+         * @param formatter
+         * @return
+         */
+        public Editor setValueFormatter(ValueFormatter formatter) {
+            mNewFormatter = formatter;
+            mChanged = (mChanged | FORMATTER) & ~FORMAT_DIGITS;
+            return this;
+        }
+
+        /**
+         * see CircleDisplay.setUnit(...)
+         * 
+         * @param unit
+         * @return
+         */
+        public Editor setUnit(String unit) {
+            mUnit = unit;
+            mChanged |= UNIT;
+            return this;
+        }
+
+        /**
+         * see CircleDisplay.setDrawInnerCircle(...)
+         * 
+         * @param enabled
+         * @return
+         */
+        public Editor setDrawInnerCircle(boolean enabled) {
+            mInner = enabled;
+            mChanged |= DRAW_INNER;
+            return this;
+        }
+
+        /**
+         * see CircleDisplay.setDrawText(...)
+         * 
+         * @param enabled
+         * @return
+         */
+        public Editor setDrawText(boolean enabled) {
+            mText = enabled;
+            mChanged |= DRAW_TEXT;
+            return this;
+        }
+
+        /**
+         * applies all collected changes to the view and redraws it once
+         */
+        public void apply() {
+
+            int changed = mChanged;
+            mChanged = 0;
+
+            if (changed == 0)
+                return;
+
+            if ((changed & COLOR) != 0)
+                mArcPaint.setColor(mColor);
+            if ((changed & INNER_COLOR) != 0)
+                mInnerCirclePaint.setColor(mInnerColor);
+            if ((changed & TEXT_COLOR) != 0)
+                mTextPaint.setColor(mTextColor);
+            if ((changed & TEXT_SIZE) != 0)
+                mTextPaint.setTextSize(Utils.convertDpToPixel(getResources(), mTextSize));
+            if ((changed & VALUE_WIDTH) != 0)
+                mValueWidthPercent = mValueWidth;
+            if ((changed & START_ANGLE) != 0)
+                mStartAngle = mStart;
+            if ((changed & DIM_ALPHA) != 0)
+                mDimAlpha = mAlpha;
+            if ((changed & DRAW_INNER) != 0)
+                mDrawInner = mInner;
+            if ((changed & DRAW_TEXT) != 0)
+                mDrawText = mText;
+            if ((changed & UNIT) != 0)
+                mUnitChars = mUnit == null ? new char[0] : mUnit.toCharArray();
+
+            if ((changed & FORMATTER) != 0) {
+                mFormatter = mNewFormatter;
+            } else if ((changed & FORMAT_DIGITS) != 0) {
+
+                boolean same = mFormatter instanceof FixedPointValueFormatter
+                        && ((FixedPointValueFormatter) mFormatter).getDigits() == mDigits;
+
+                if (!same)
+                    mFormatter = new FixedPointValueFormatter(mDigits);
+            }
+
+            if ((changed & (FORMATTER | FORMAT_DIGITS | UNIT)) != 0)
+                ensureTextBuffer();
+
+            // the geometry update also clears the static layer and arc paths
+            if ((changed & (TEXT_SIZE | VALUE_WIDTH)) != 0) {
+                updateGeometry();
+            } else {
+                if ((changed & (COLOR | INNER_COLOR | DIM_ALPHA | DRAW_INNER)) != 0)
+                    invalidateStaticLayer();
+                if ((changed & START_ANGLE) != 0) {
+                    clearArcPathCache();
+                    invalidateTicks();
+                }
+            }
+
+            if ((changed & (FORMATTER | FORMAT_DIGITS)) != 0 && mDrawTickLabels)
+                invalidateTicks();
+
+            invalidate();
+        }
+    }
+
     public static abstract class Utils {
 
         /**
@@ -789,31 +2709,52 @@ public class CircleDisplay extends View implements OnGestureListener {
 
     @Override
     public boolean onDown(MotionEvent e) {
-        // TODO Auto-generated method stub
+
+        // touching the view catches a running fling
+        stopFling(true);
         return false;
     }
 
     @Override
     public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
-        // TODO Auto-generated method stub
-        return false;
+
+        if (!mFlingEnabled || mMaxValue == 0f || e1 == null
+                || !CircleMath.isInRing(mGeometry, e1.getX(), e1.getY()))
+            return false;
+
+        float dx = e2.getX() - mGeometry.centerX;
+        float dy = e2.getY() - mGeometry.centerY;
+        float distSq = dx * dx + dy * dy;
+
+        if (distSq == 0f)
+            return false;
+
+        // tangential part of the velocity as angular velocity, clockwise is
+        // positive because the y-axis points down
+        float velocity = (float) Math.toDegrees((dx * velocityY - dy * velocityX) / distSq);
+
+        if (Math.abs(velocity) < MIN_FLING_VELOCITY)
+            return false;
+
+        startFling(velocity);
+        return true;
     }
 
     @Override
     public void onLongPress(MotionEvent e) {
-        // TODO Auto-generated method stub
-
+        // a long press selects nothing more than the touch itself
     }
 
     @Override
     public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
-        // TODO Auto-generated method stub
+
+        // drags are handled by onTouchEvent(...), which sees every batched
+        // sample for continuous selection
         return false;
     }
 
     @Override
     public void onShowPress(MotionEvent e) {
-        // TODO Auto-generated method stub
-
+        // no pressed state is drawn
     }
 }
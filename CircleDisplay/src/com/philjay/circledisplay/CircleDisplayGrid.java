@@ -0,0 +1,539 @@
+
+package com.philjay.circledisplay;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Paint.Align;
+import android.graphics.Paint.Style;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.philjay.circledisplay.CircleDisplay.Utils;
+import com.philjay.circledisplay.GaugeGroup.Gauge;
+
+/**
+ * View that lays out and draws many gauges in a grid, in a single onDraw()
+ * pass. All gauges share one set of paints, one formatter and one animation
+ * clock, which is a lot cheaper than one CircleDisplay per gauge when
+ * showing dozens or hundreds of them. Touches are routed to the gauge whose
+ * bar is touched.
+ * 
+ * @author Philipp Jahoda
+ */
+public class CircleDisplayGrid extends View {
+
+    /** the gauges, their shared animation clock, formatter and listener */
+    private GaugeGroup mGauges;
+
+    /** number of columns of the grid */
+    private int mColumns = 4;
+
+    /** startangle of the gauges */
+    private float mStartAngle = 270f;
+
+    /** minimum selectable interval of all gauges */
+    private float mStepSize = 1f;
+
+    /** percent of the maximum width the arc takes */
+    private float mValueWidthPercent = 50f;
+
+    /** represents the alpha value used for the remainder bar */
+    private int mDimAlpha = 80;
+
+    /** if enabled, the inner circles are drawn */
+    private boolean mDrawInner = true;
+
+    /** if enabled, the center texts are drawn */
+    private boolean mDrawText = true;
+
+    /** if enabled, touching and therefore selecting values is enabled */
+    private boolean mTouchEnabled = true;
+
+    /** width and height of a single cell */
+    private float mCellWidth, mCellHeight;
+
+    /** geometry of a single cell, relative to the top left of the cell */
+    private CircleGeometry mCellGeometry;
+
+    /** bounds of the value arc inside a cell */
+    private RectF mCircleBox = new RectF();
+
+    private Paint mArcPaint;
+    private Paint mInnerCirclePaint;
+    private Paint mTextPaint;
+
+    /** index of the gauge that is currently touched, -1 if none */
+    private int mTouchedIndex = -1;
+
+    /** true while the view is attached to a window */
+    private boolean mAttached = false;
+
+    public CircleDisplayGrid(Context context) {
+        super(context);
+        init();
+    }
+
+    public CircleDisplayGrid(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    public CircleDisplayGrid(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init();
+    }
+
+    private void init() {
+
+        mArcPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mArcPaint.setStyle(Style.FILL);
+
+        mInnerCirclePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mInnerCirclePaint.setStyle(Style.FILL);
+        mInnerCirclePaint.setColor(Color.WHITE);
+
+        mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mTextPaint.setStyle(Style.STROKE);
+        mTextPaint.setTextAlign(Align.CENTER);
+        mTextPaint.setColor(Color.BLACK);
+        mTextPaint.setTextSize(Utils.convertDpToPixel(getResources(), 12f));
+
+        mGauges = new GaugeGroup(this);
+
+        updateGeometry();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+
+        int width = getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec);
+        int height;
+
+        // without a fixed height, make the cells square
+        if (MeasureSpec.getMode(heightMeasureSpec) == MeasureSpec.EXACTLY)
+            height = MeasureSpec.getSize(heightMeasureSpec);
+        else {
+            height = (int) (getRows() * (width / (float) mColumns));
+
+            if (MeasureSpec.getMode(heightMeasureSpec) == MeasureSpec.AT_MOST)
+                height = Math.min(height, MeasureSpec.getSize(heightMeasureSpec));
+        }
+
+        setMeasuredDimension(width, height);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mAttached = true;
+        updateSuspended();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mAttached = false;
+        updateSuspended();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateSuspended();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateSuspended();
+    }
+
+    /**
+     * Suspends the animation of the gauges while the view cannot be seen
+     * (detached, hidden, or its window is hidden) and resumes it once it can
+     * be seen again, where it was suspended.
+     */
+    private void updateSuspended() {
+        mGauges.setSuspended(!mAttached || getWindowVisibility() != VISIBLE || !isShown());
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateGeometry();
+    }
+
+    /**
+     * recomputes the size of the cells and the geometry shared by all of them
+     */
+    private void updateGeometry() {
+
+        int rows = Math.max(1, getRows());
+
+        mCellWidth = getWidth() / (float) mColumns;
+        mCellHeight = getHeight() / (float) rows;
+
+        CircleGeometry g = new CircleGeometry((int) mCellWidth, (int) mCellHeight,
+                mValueWidthPercent, mTextPaint.descent());
+
+        mCircleBox.set(g.boxLeft, g.boxTop, g.boxRight, g.boxBottom);
+        mCellGeometry = g;
+    }
+
+    /**
+     * returns the number of rows needed for the current gauges
+     * 
+     * @return
+     */
+    private int getRows() {
+        return (mGauges.size() + mColumns - 1) / mColumns;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        CircleGeometry g = mCellGeometry;
+        int count = mGauges.size();
+
+        for (int i = 0; i < count; i++) {
+
+            Gauge gauge = mGauges.get(i);
+
+            float left = (i % mColumns) * mCellWidth;
+            float top = (i / mColumns) * mCellHeight;
+
+            canvas.save();
+            canvas.translate(left, top);
+
+            float value = mGauges.getDisplayedValue(i);
+
+            mArcPaint.setColor(gauge.color);
+
+            // background circle with less alpha
+            mArcPaint.setAlpha(mDimAlpha);
+            canvas.drawCircle(g.centerX, g.centerY, g.radius, mArcPaint);
+
+            // the actual value arc, none before a value has been shown
+            if (gauge.maxValue > 0f) {
+                mArcPaint.setAlpha(255);
+                canvas.drawArc(mCircleBox, mStartAngle,
+                        CircleMath.angleForValue(value, gauge.maxValue), true, mArcPaint);
+            }
+
+            if (mDrawInner)
+                canvas.drawCircle(g.centerX, g.centerY, g.innerRadius, mInnerCirclePaint);
+
+            if (mDrawText) {
+                int length = mGauges.format(value);
+                canvas.drawText(mGauges.getTextBuffer(), 0, length, g.centerX, g.textBaseline,
+                        mTextPaint);
+            }
+
+            canvas.restore();
+        }
+    }
+
+    /**
+     * Adds a new gauge at the end of the grid and returns its index.
+     * 
+     * @param color color of the value bar of the gauge
+     * @return
+     */
+    public int addGauge(int color) {
+        int index = mGauges.add(color);
+        requestLayout();
+        updateGeometry();
+        invalidate();
+        return index;
+    }
+
+    /**
+     * removes all gauges from the grid
+     */
+    public void clearGauges() {
+        mGauges.clear();
+        mTouchedIndex = -1;
+        requestLayout();
+        updateGeometry();
+        invalidate();
+    }
+
+    /**
+     * returns the number of gauges in the grid
+     * 
+     * @return
+     */
+    public int getGaugeCount() {
+        return mGauges.size();
+    }
+
+    /**
+     * Shows the given value in the gauge with the given index. All gauges that
+     * are animated share one animation, an animated value continues from what
+     * the gauge currently displays.
+     * 
+     * @param index
+     * @param toShow
+     * @param total
+     * @param animated
+     */
+    public void showValue(int index, float toShow, float total, boolean animated) {
+        mGauges.showValue(index, toShow, total, animated);
+    }
+
+    /**
+     * returns the value of the gauge with the given index
+     * 
+     * @param index
+     * @return
+     */
+    public float getValue(int index) {
+        return mGauges.get(index).value;
+    }
+
+    /**
+     * set the color of the arc of the gauge with the given index
+     * 
+     * @param index
+     * @param color
+     */
+    public void setColor(int index, int color) {
+        mGauges.get(index).color = color;
+        invalidate();
+    }
+
+    /**
+     * set the number of columns of the grid, default 4
+     * 
+     * @param columns
+     */
+    public void setColumns(int columns) {
+        mColumns = Math.max(1, columns);
+        requestLayout();
+        updateGeometry();
+        invalidate();
+    }
+
+    /**
+     * set the duration of the drawing animation in milliseconds
+     * 
+     * @param durationmillis
+     */
+    public void setAnimDuration(int durationmillis) {
+        mGauges.setAnimDuration(durationmillis);
+    }
+
+    /**
+     * Sets the unit that is displayed next to the values of all gauges.
+     * 
+     * @param unit
+     */
+    public void setUnit(String unit) {
+        mGauges.setUnit(unit);
+    }
+
+    /**
+     * sets the number of digits used to format values
+     * 
+     * @param digits
+     */
+    public void setFormatDigits(int digits) {
+        setValueFormatter(new FixedPointValueFormatter(digits));
+    }
+
+    /**
+     * sets the formatter used for the values of all gauges
+     * 
+     * @param formatter
+     */
+    public void setValueFormatter(ValueFormatter formatter) {
+        mGauges.setValueFormatter(formatter);
+    }
+
+    /**
+     * set the starting angle of all gauges
+     * 
+     * @param angle
+     */
+    public void setStartAngle(float angle) {
+        mStartAngle = angle;
+        invalidate();
+    }
+
+    /**
+     * set the size of the center texts in dp
+     * 
+     * @param size
+     */
+    public void setTextSize(float size) {
+        mTextPaint.setTextSize(Utils.convertDpToPixel(getResources(), size));
+        updateGeometry();
+        invalidate();
+    }
+
+    /**
+     * set the thickness of the value bars, default 50%
+     * 
+     * @param percentFromTotalWidth
+     */
+    public void setValueWidthPercent(float percentFromTotalWidth) {
+        mValueWidthPercent = percentFromTotalWidth;
+        updateGeometry();
+        invalidate();
+    }
+
+    /**
+     * set the aplha value to be used for the remainder of the arcs, default 80
+     * (use value between 0 and 255)
+     * 
+     * @param alpha
+     */
+    public void setDimAlpha(int alpha) {
+        mDimAlpha = alpha;
+        invalidate();
+    }
+
+    /**
+     * set this to true to draw the inner circles, default: true
+     * 
+     * @param enabled
+     */
+    public void setDrawInnerCircle(boolean enabled) {
+        mDrawInner = enabled;
+        invalidate();
+    }
+
+    /**
+     * set the drawing of the center texts to be enabled or not
+     * 
+     * @param enabled
+     */
+    public void setDrawText(boolean enabled) {
+        mDrawText = enabled;
+        invalidate();
+    }
+
+    /**
+     * Sets the stepsize (minimum selection interval) of all gauges, default
+     * 1f.
+     * 
+     * @param stepsize
+     */
+    public void setStepSize(float stepsize) {
+        mStepSize = stepsize;
+    }
+
+    /**
+     * Enable touch gestures on the grid. If enabled, selecting values of the
+     * gauges onTouch() is possible.
+     * 
+     * @param enabled
+     */
+    public void setTouchEnabled(boolean enabled) {
+        mTouchEnabled = enabled;
+    }
+
+    /**
+     * set a selection listener for the grid that is called whenever a value of
+     * one of the gauges is selected onTouch()
+     * 
+     * @param l
+     */
+    public void setSelectionListener(GaugeSelectionListener l) {
+        mGauges.setSelectionListener(l);
+    }
+
+    /**
+     * returns the index of the gauge whose bar lies under the given point, -1
+     * if there is none
+     * 
+     * @param x
+     * @param y
+     * @return
+     */
+    public int getGaugeIndexForPoint(float x, float y) {
+
+        if (mCellWidth <= 0f || mCellHeight <= 0f || x < 0f || y < 0f)
+            return -1;
+
+        int column = (int) (x / mCellWidth);
+        int row = (int) (y / mCellHeight);
+
+        if (column >= mColumns)
+            return -1;
+
+        int index = row * mColumns + column;
+
+        if (index >= mGauges.size())
+            return -1;
+
+        if (!CircleMath.isInRing(mCellGeometry, x - column * mCellWidth, y - row * mCellHeight))
+            return -1;
+
+        return index;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent e) {
+
+        if (!mTouchEnabled)
+            return super.onTouchEvent(e);
+
+        float x = e.getX();
+        float y = e.getY();
+
+        switch (e.getActionMasked()) {
+
+            case MotionEvent.ACTION_DOWN:
+                mTouchedIndex = getGaugeIndexForPoint(x, y);
+                return mTouchedIndex >= 0;
+
+            case MotionEvent.ACTION_MOVE:
+                if (mTouchedIndex >= 0 && getGaugeIndexForPoint(x, y) == mTouchedIndex) {
+                    selectValue(mTouchedIndex, x, y);
+                    mGauges.dispatchSelectionUpdate(mTouchedIndex);
+                }
+                break;
+
+            case MotionEvent.ACTION_UP:
+                if (mTouchedIndex >= 0) {
+                    if (getGaugeIndexForPoint(x, y) == mTouchedIndex)
+                        selectValue(mTouchedIndex, x, y);
+
+                    mGauges.dispatchValueSelected(mTouchedIndex);
+                }
+                mTouchedIndex = -1;
+                break;
+
+            case MotionEvent.ACTION_CANCEL:
+                mTouchedIndex = -1;
+                break;
+        }
+
+        return true;
+    }
+
+    /**
+     * sets the value of the gauge with the given index to the one under the
+     * given point, takes stepsize into consideration
+     * 
+     * @param index
+     * @param x
+     * @param y
+     */
+    private void selectValue(int index, float x, float y) {
+
+        Gauge gauge = mGauges.get(index);
+
+        float localX = x - (index % mColumns) * mCellWidth;
+        float localY = y - (index / mColumns) * mCellHeight;
+
+        mGauges.selectValue(index, CircleMath.valueForPoint(mCellGeometry, localX, localY,
+                gauge.maxValue, mStepSize));
+    }
+}
@@ -0,0 +1,524 @@
+package com.philjay.circledisplay;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Paint.Align;
+import android.graphics.Paint.Style;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.philjay.circledisplay.CircleDisplay.Utils;
+import com.philjay.circledisplay.GaugeGroup.Gauge;
+
+/**
+ * View that draws several concentric rings, each with its own value, maximum
+ * and color, e.g. for fitness-style dashboards. The radii of all rings are
+ * computed in one geometry pass and a single animation clock drives all of
+ * them. Touches select the value of the ring under the finger.
+ * 
+ * @author Philipp Jahoda
+ */
+public class CircleDisplayRings extends View {
+
+    /** the rings, their shared animation clock, formatter and listener */
+    private GaugeGroup mRings;
+
+    /** startangle of the rings */
+    private float mStartAngle = 270f;
+
+    /** minimum selectable interval of all rings */
+    private float mStepSize = 1f;
+
+    /** percent of the radius all rings together take */
+    private float mValueWidthPercent = 60f;
+
+    /** percent of the width of a ring left free between two rings */
+    private float mRingGapPercent = 15f;
+
+    /** represents the alpha value used for the remainder bars */
+    private int mDimAlpha = 80;
+
+    /** if enabled, the center text is drawn */
+    private boolean mDrawText = true;
+
+    /** index of the ring whose value is shown in the center */
+    private int mTextRing = 0;
+
+    /** if enabled, touching and therefore selecting values is enabled */
+    private boolean mTouchEnabled = true;
+
+    /** geometry of the whole view, its radius is the one of the outer ring */
+    private CircleGeometry mGeometry;
+
+    /** width of a single ring */
+    private float mRingWidth;
+
+    /** radius of the middle of each ring, the arcs are stroked along it */
+    private float[] mMidRadii = new float[0];
+
+    /** squared inner and outer radius of each ring, for touch checks */
+    private float[] mInnerRadiiSquared = new float[0];
+    private float[] mOuterRadiiSquared = new float[0];
+
+    /** bounds of the arc of a ring, reused for every ring */
+    private RectF mArcBox = new RectF();
+
+    private Paint mArcPaint;
+    private Paint mTextPaint;
+
+    /** index of the ring that is currently touched, -1 if none */
+    private int mTouchedIndex = -1;
+
+    /** true while the view is attached to a window */
+    private boolean mAttached = false;
+
+    public CircleDisplayRings(Context context) {
+        super(context);
+        init();
+    }
+
+    public CircleDisplayRings(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    public CircleDisplayRings(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init();
+    }
+
+    private void init() {
+
+        mArcPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mArcPaint.setStyle(Style.STROKE);
+
+        mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mTextPaint.setStyle(Style.STROKE);
+        mTextPaint.setTextAlign(Align.CENTER);
+        mTextPaint.setColor(Color.BLACK);
+        mTextPaint.setTextSize(Utils.convertDpToPixel(getResources(), 24f));
+
+        mRings = new GaugeGroup(this);
+
+        updateGeometry();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mAttached = true;
+        updateSuspended();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mAttached = false;
+        updateSuspended();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateSuspended();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateSuspended();
+    }
+
+    /**
+     * Suspends the animation of the rings while the view cannot be seen
+     * (detached, hidden, or its window is hidden) and resumes it once it can
+     * be seen again, where it was suspended.
+     */
+    private void updateSuspended() {
+        mRings.setSuspended(!mAttached || getWindowVisibility() != VISIBLE || !isShown());
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateGeometry();
+    }
+
+    /**
+     * Computes the radii of all rings in one pass. The rings share the band
+     * between the outer radius and the inner radius of the view geometry,
+     * with a gap between two rings.
+     */
+    private void updateGeometry() {
+
+        CircleGeometry g = new CircleGeometry(getWidth(), getHeight(), mValueWidthPercent,
+                mTextPaint.descent());
+
+        int count = mRings.size();
+
+        if (mMidRadii.length != count) {
+            mMidRadii = new float[count];
+            mInnerRadiiSquared = new float[count];
+            mOuterRadiiSquared = new float[count];
+        }
+
+        float band = g.radius - g.innerRadius;
+
+        // n rings and n - 1 gaps fill the band
+        float gap = mRingGapPercent / 100f;
+        float step = count > 0 ? band / (count + gap * (count - 1)) * (1f + gap) : 0f;
+
+        mRingWidth = count > 0 ? step / (1f + gap) : 0f;
+
+        for (int i = 0; i < count; i++) {
+
+            float outer = g.radius - i * step;
+            float inner = outer - mRingWidth;
+
+            mMidRadii[i] = outer - mRingWidth / 2f;
+            mOuterRadiiSquared[i] = outer * outer;
+            mInnerRadiiSquared[i] = inner * inner;
+        }
+
+        mArcPaint.setStrokeWidth(mRingWidth);
+        mGeometry = g;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        CircleGeometry g = mGeometry;
+        int count = mRings.size();
+
+        for (int i = 0; i < count; i++) {
+
+            Gauge ring = mRings.get(i);
+            float r = mMidRadii[i];
+
+            mArcPaint.setColor(ring.color);
+
+            // background ring with less alpha
+            mArcPaint.setAlpha(mDimAlpha);
+            canvas.drawCircle(g.centerX, g.centerY, r, mArcPaint);
+
+            // the actual value arc, none before a value has been shown
+            if (ring.maxValue > 0f) {
+                mArcPaint.setAlpha(255);
+                mArcBox.set(g.centerX - r, g.centerY - r, g.centerX + r, g.centerY + r);
+                canvas.drawArc(mArcBox, mStartAngle,
+                        CircleMath.angleForValue(mRings.getDisplayedValue(i), ring.maxValue),
+                        false, mArcPaint);
+            }
+        }
+
+        if (mDrawText && mTextRing < count) {
+            int length = mRings.format(mRings.getDisplayedValue(mTextRing));
+            canvas.drawText(mRings.getTextBuffer(), 0, length, g.centerX, g.textBaseline,
+                    mTextPaint);
+        }
+    }
+
+    /**
+     * Adds a new ring inside the innermost one and returns its index. The
+     * radii of all rings are recomputed.
+     * 
+     * @param color color of the value bar of the ring
+     * @return
+     */
+    public int addRing(int color) {
+        int index = mRings.add(color);
+        updateGeometry();
+        invalidate();
+        return index;
+    }
+
+    /**
+     * removes all rings
+     */
+    public void clearRings() {
+        mRings.clear();
+        mTouchedIndex = -1;
+        updateGeometry();
+        invalidate();
+    }
+
+    /**
+     * returns the number of rings
+     * 
+     * @return
+     */
+    public int getRingCount() {
+        return mRings.size();
+    }
+
+    /**
+     * Shows the given value in the ring with the given index. All rings that
+     * are animated share one animation, an animated value continues from what
+     * the ring currently displays.
+     * 
+     * @param index
+     * @param toShow
+     * @param total
+     * @param animated
+     */
+    public void showValue(int index, float toShow, float total, boolean animated) {
+        mRings.showValue(index, toShow, total, animated);
+    }
+
+    /**
+     * returns the value of the ring with the given index
+     * 
+     * @param index
+     * @return
+     */
+    public float getValue(int index) {
+        return mRings.get(index).value;
+    }
+
+    /**
+     * set the color of the arc of the ring with the given index
+     * 
+     * @param index
+     * @param color
+     */
+    public void setColor(int index, int color) {
+        mRings.get(index).color = color;
+        invalidate();
+    }
+
+    /**
+     * set the duration of the drawing animation in milliseconds
+     * 
+     * @param durationmillis
+     */
+    public void setAnimDuration(int durationmillis) {
+        mRings.setAnimDuration(durationmillis);
+    }
+
+    /**
+     * sets the index of the ring whose value is shown in the center, default
+     * 0 (the outermost ring)
+     * 
+     * @param index
+     */
+    public void setTextRing(int index) {
+        mTextRing = index;
+        invalidate();
+    }
+
+    /**
+     * Sets the unit that is displayed next to the value in the center.
+     * 
+     * @param unit
+     */
+    public void setUnit(String unit) {
+        mRings.setUnit(unit);
+    }
+
+    /**
+     * sets the number of digits used to format values
+     * 
+     * @param digits
+     */
+    public void setFormatDigits(int digits) {
+        setValueFormatter(new FixedPointValueFormatter(digits));
+    }
+
+    /**
+     * sets the formatter used for the value in the center
+     * 
+     * @param formatter
+     */
+    public void setValueFormatter(ValueFormatter formatter) {
+        mRings.setValueFormatter(formatter);
+    }
+
+    /**
+     * set the starting angle of all rings
+     * 
+     * @param angle
+     */
+    public void setStartAngle(float angle) {
+        mStartAngle = angle;
+        invalidate();
+    }
+
+    /**
+     * set the size of the center text in dp
+     * 
+     * @param size
+     */
+    public void setTextSize(float size) {
+        mTextPaint.setTextSize(Utils.convertDpToPixel(getResources(), size));
+        updateGeometry();
+        invalidate();
+    }
+
+    /**
+     * set the thickness of all rings together, in percent of the radius,
+     * default 60%
+     * 
+     * @param percentFromTotalWidth
+     */
+    public void setValueWidthPercent(float percentFromTotalWidth) {
+        mValueWidthPercent = percentFromTotalWidth;
+        updateGeometry();
+        invalidate();
+    }
+
+    /**
+     * set the gap between two rings, in percent of the width of a ring,
+     * default 15%
+     * 
+     * @param percent
+     */
+    public void setRingGapPercent(float percent) {
+        mRingGapPercent = percent;
+        updateGeometry();
+        invalidate();
+    }
+
+    /**
+     * set the aplha value to be used for the remainder of the rings, default
+     * 80 (use value between 0 and 255)
+     * 
+     * @param alpha
+     */
+    public void setDimAlpha(int alpha) {
+        mDimAlpha = alpha;
+        invalidate();
+    }
+
+    /**
+     * set the drawing of the center text to be enabled or not
+     * 
+     * @param enabled
+     */
+    public void setDrawText(boolean enabled) {
+        mDrawText = enabled;
+        invalidate();
+    }
+
+    /**
+     * Sets the stepsize (minimum selection interval) of all rings, default
+     * 1f.
+     * 
+     * @param stepsize
+     */
+    public void setStepSize(float stepsize) {
+        mStepSize = stepsize;
+    }
+
+    /**
+     * Enable touch gestures on the rings. If enabled, selecting values of the
+     * rings onTouch() is possible.
+     * 
+     * @param enabled
+     */
+    public void setTouchEnabled(boolean enabled) {
+        mTouchEnabled = enabled;
+    }
+
+    /**
+     * set a selection listener that is called whenever a value of one of the
+     * rings is selected onTouch()
+     * 
+     * @param l
+     */
+    public void setSelectionListener(GaugeSelectionListener l) {
+        mRings.setSelectionListener(l);
+    }
+
+    /**
+     * Returns the index of the ring under the given point, -1 if there is
+     * none. Uses the same annulus check as the CircleDisplay, with the radii
+     * of each ring.
+     * 
+     * @param x
+     * @param y
+     * @return
+     */
+    public int getRingIndexForPoint(float x, float y) {
+
+        float distSq = CircleMath.distanceSquared(mGeometry, x, y);
+
+        for (int i = 0; i < mRings.size(); i++) {
+            if (CircleMath.isInRing(distSq, mInnerRadiiSquared[i], mOuterRadiiSquared[i]))
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * returns true if the given point lies on the ring with the given index
+     * 
+     * @param index
+     * @param x
+     * @param y
+     * @return
+     */
+    private boolean isInRing(int index, float x, float y) {
+        return CircleMath.isInRing(CircleMath.distanceSquared(mGeometry, x, y),
+                mInnerRadiiSquared[index], mOuterRadiiSquared[index]);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent e) {
+
+        if (!mTouchEnabled)
+            return super.onTouchEvent(e);
+
+        float x = e.getX();
+        float y = e.getY();
+
+        switch (e.getActionMasked()) {
+
+            case MotionEvent.ACTION_DOWN:
+                mTouchedIndex = getRingIndexForPoint(x, y);
+                return mTouchedIndex >= 0;
+
+            case MotionEvent.ACTION_MOVE:
+                if (mTouchedIndex >= 0 && isInRing(mTouchedIndex, x, y)) {
+                    selectValue(mTouchedIndex, x, y);
+                    mRings.dispatchSelectionUpdate(mTouchedIndex);
+                }
+                break;
+
+            case MotionEvent.ACTION_UP:
+                if (mTouchedIndex >= 0) {
+                    if (isInRing(mTouchedIndex, x, y))
+                        selectValue(mTouchedIndex, x, y);
+
+                    mRings.dispatchValueSelected(mTouchedIndex);
+                }
+                mTouchedIndex = -1;
+                break;
+
+            case MotionEvent.ACTION_CANCEL:
+                mTouchedIndex = -1;
+                break;
+        }
+
+        return true;
+    }
+
+    /**
+     * sets the value of the ring with the given index to the one under the
+     * given point, takes stepsize into consideration
+     * 
+     * @param index
+     * @param x
+     * @param y
+     */
+    private void selectValue(int index, float x, float y) {
+
+        mRings.selectValue(index, CircleMath.valueForPoint(mGeometry, x, y,
+                mRings.get(index).maxValue, mStepSize));
+    }
+}
@@ -0,0 +1,261 @@
+
+package com.philjay.circledisplay;
+
+import android.graphics.Color;
+import android.graphics.Typeface;
+
+/**
+ * Immutable set of styling properties for the CircleDisplay. A single
+ * instance can be shared by any number of views, apply it with
+ * CircleDisplay.setStyle(...). Create instances with the Builder.
+ * 
+ * @author Philipp Jahoda
+ */
+public final class CircleDisplayStyle {
+
+    /** color of the value bar */
+    private final int mColor;
+
+    /** color of the inner circle */
+    private final int mInnerColor;
+
+    /** color of the center text */
+    private final int mTextColor;
+
+    /** size of the center text in dp */
+    private final float mTextSize;
+
+    /** percent of the maximum width the arc takes */
+    private final float mValueWidthPercent;
+
+    /** alpha value used for the remainder bar */
+    private final int mDimAlpha;
+
+    /** typeface of the center text, null for the default */
+    private final Typeface mTypeface;
+
+    private CircleDisplayStyle(Builder b) {
+        mColor = b.mColor;
+        mInnerColor = b.mInnerColor;
+        mTextColor = b.mTextColor;
+        mTextSize = b.mTextSize;
+        mValueWidthPercent = b.mValueWidthPercent;
+        mDimAlpha = b.mDimAlpha;
+        mTypeface = b.mTypeface;
+    }
+
+    /**
+     * returns the color of the value bar
+     * 
+     * @return
+     */
+    public int getColor() {
+        return mColor;
+    }
+
+    /**
+     * returns the color of the inner circle
+     * 
+     * @return
+     */
+    public int getInnerColor() {
+        return mInnerColor;
+    }
+
+    /**
+     * returns the color of the center text
+     * 
+     * @return
+     */
+    public int getTextColor() {
+        return mTextColor;
+    }
+
+    /**
+     * returns the size of the center text in dp
+     * 
+     * @return
+     */
+    public float getTextSize() {
+        return mTextSize;
+    }
+
+    /**
+     * returns the thickness of the value bar in percent of the maximum width
+     * 
+     * @return
+     */
+    public float getValueWidthPercent() {
+        return mValueWidthPercent;
+    }
+
+    /**
+     * returns the alpha value used for the remainder of the arc
+     * 
+     * @return
+     */
+    public int getDimAlpha() {
+        return mDimAlpha;
+    }
+
+    /**
+     * returns the typeface of the center text, null for the default
+     * 
+     * @return
+     */
+    public Typeface getTypeface() {
+        return mTypeface;
+    }
+
+    /**
+     * returns a builder initialized with the properties of this style, for
+     * deriving a slightly different style
+     * 
+     * @return
+     */
+    public Builder buildUpon() {
+        return new Builder()
+                .setColor(mColor)
+                .setInnerColor(mInnerColor)
+                .setTextColor(mTextColor)
+                .setTextSize(mTextSize)
+                .setValueWidthPercent(mValueWidthPercent)
+                .setDimAlpha(mDimAlpha)
+                .setTypeface(mTypeface);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+
+        if (this == o)
+            return true;
+
+        if (!(o instanceof CircleDisplayStyle))
+            return false;
+
+        CircleDisplayStyle other = (CircleDisplayStyle) o;
+
+        return mColor == other.mColor
+                && mInnerColor == other.mInnerColor
+                && mTextColor == other.mTextColor
+                && Float.compare(mTextSize, other.mTextSize) == 0
+                && Float.compare(mValueWidthPercent, other.mValueWidthPercent) == 0
+                && mDimAlpha == other.mDimAlpha
+                && (mTypeface == null ? other.mTypeface == null : mTypeface
+                        .equals(other.mTypeface));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mColor;
+        result = 31 * result + mInnerColor;
+        result = 31 * result + mTextColor;
+        result = 31 * result + Float.floatToIntBits(mTextSize);
+        result = 31 * result + Float.floatToIntBits(mValueWidthPercent);
+        result = 31 * result + mDimAlpha;
+        result = 31 * result + (mTypeface == null ? 0 : mTypeface.hashCode());
+        return result;
+    }
+
+    /**
+     * Builder for CircleDisplayStyle objects, starts with the defaults of the
+     * CircleDisplay.
+     */
+    public static class Builder {
+
+        private int mColor = Color.rgb(192, 255, 140);
+        private int mInnerColor = Color.WHITE;
+        private int mTextColor = Color.BLACK;
+        private float mTextSize = 24f;
+        private float mValueWidthPercent = 50f;
+        private int mDimAlpha = 80;
+        private Typeface mTypeface = null;
+
+        /**
+         * set the color of the arc
+         * 
+         * @param color
+         * @return
+         */
+        public Builder setColor(int color) {
+            mColor = color;
+            return this;
+        }
+
+        /**
+         * set the color of the inner circle, default white
+         * 
+         * @param color
+         * @return
+         */
+        public Builder setInnerColor(int color) {
+            mInnerColor = color;
+            return this;
+        }
+
+        /**
+         * set the color of the center text, default black
+         * 
+         * @param color
+         * @return
+         */
+        public Builder setTextColor(int color) {
+            mTextColor = color;
+            return this;
+        }
+
+        /**
+         * set the size of the center text in dp, default 24
+         * 
+         * @param size
+         * @return
+         */
+        public Builder setTextSize(float size) {
+            mTextSize = size;
+            return this;
+        }
+
+        /**
+         * set the thickness of the value bar, default 50%
+         * 
+         * @param percentFromTotalWidth
+         * @return
+         */
+        public Builder setValueWidthPercent(float percentFromTotalWidth) {
+            mValueWidthPercent = percentFromTotalWidth;
+            return this;
+        }
+
+        /**
+         * set the aplha value to be used for the remainder of the arc, default
+         * 80 (use value between 0 and 255)
+         * 
+         * @param alpha
+         * @return
+         */
+        public Builder setDimAlpha(int alpha) {
+            mDimAlpha = alpha;
+            return this;
+        }
+
+        /**
+         * set the typeface of the center text, null for the default
+         * 
+         * @param typeface
+         * @return
+         */
+        public Builder setTypeface(Typeface typeface) {
+            mTypeface = typeface;
+            return this;
+        }
+
+        /**
+         * creates the style with the properties set on this builder
+         * 
+         * @return
+         */
+        public CircleDisplayStyle build() {
+            return new CircleDisplayStyle(this);
+        }
+    }
+}
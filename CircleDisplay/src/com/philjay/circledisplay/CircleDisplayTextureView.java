@@ -0,0 +1,681 @@
+
+package com.philjay.circledisplay;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.SurfaceTexture;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.TextureView;
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * Alternative host for the CircleDisplay that draws on a dedicated render
+ * thread into a TextureView, so drawing does not compete with scrolling and
+ * input handling on the UI thread. It renders the same pipeline as the
+ * CircleDisplay (it drives an offscreen CircleDisplay that is only ever
+ * touched by the render thread) and offers the same methods for setting
+ * values, colors and units. Frames are paced by the Choreographer of the
+ * render thread. Values can also be published from any thread with
+ * publishValue(...), see ValueFeed. Touch selection is not supported.
+ * 
+ * @author Philipp Jahoda
+ */
+public class CircleDisplayTextureView extends TextureView implements
+        TextureView.SurfaceTextureListener {
+
+    /** the offscreen display, only accessed on the render thread */
+    private CircleDisplay mDisplay;
+
+    /** feed handing values from any thread to the render thread */
+    private final ValueFeed mFeed = new ValueFeed();
+
+    /** the render thread, only exists while attached to a window */
+    private volatile HandlerThread mRenderThread;
+
+    /** handler of the render thread, guarded by mThreadLock */
+    private Handler mRenderHandler;
+
+    private final Object mThreadLock = new Object();
+
+    /**
+     * tasks posted while there is no render thread, run in order on the next
+     * one, guarded by mThreadLock
+     */
+    private final ArrayList<Runnable> mPendingTasks = new ArrayList<Runnable>();
+
+    /** guards the surface between the UI and the render thread */
+    private final Object mSurfaceLock = new Object();
+
+    /** true while the surface can be drawn into, guarded by mSurfaceLock */
+    private boolean mSurfaceAvailable = false;
+
+    /** true if a frame has been requested, only used on the render thread */
+    private boolean mFrameScheduled = false;
+
+    /** true while the view is attached to a window */
+    private boolean mAttached = false;
+
+    /** true while rendering is suspended because the view cannot be seen */
+    private boolean mSuspended = false;
+
+    /**
+     * true while rendering is suspended, the render thread's copy of
+     * mSuspended
+     */
+    private boolean mRenderSuspended = false;
+
+    /** draws a frame and keeps rendering while the display animates */
+    private final Choreographer.FrameCallback mRenderCallback = new Choreographer.FrameCallback() {
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mFrameScheduled = false;
+
+            render();
+
+            if (mDisplay.isAnimating())
+                requestRender();
+        }
+    };
+
+    /** applies the values of the feed on the render thread */
+    private final ValueFeed.Consumer mFeedConsumer = new ValueFeed.Consumer() {
+
+        @Override
+        public void onFeedValue(float value, float total) {
+            mDisplay.showValue(value, total, false);
+            requestRender();
+        }
+    };
+
+    public CircleDisplayTextureView(Context context) {
+        super(context);
+        init(context);
+    }
+
+    public CircleDisplayTextureView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init(context);
+    }
+
+    public CircleDisplayTextureView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(context);
+    }
+
+    private void init(Context context) {
+
+        mDisplay = new CircleDisplay(context);
+        mDisplay.setTouchEnabled(false);
+
+        setOpaque(false);
+        setSurfaceTextureListener(this);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mAttached = true;
+
+        synchronized (mThreadLock) {
+            mRenderThread = new HandlerThread("CircleDisplayRender",
+                    Process.THREAD_PRIORITY_DISPLAY);
+            mRenderThread.start();
+            mRenderHandler = new Handler(mRenderThread.getLooper());
+
+            // replay what was set while detached, e.g. in onCreate(...)
+            for (int i = 0; i < mPendingTasks.size(); i++)
+                mRenderHandler.post(mPendingTasks.get(i));
+
+            mPendingTasks.clear();
+        }
+
+        // delivers only values published after binding or while detached
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mFeed.bind(mFeedConsumer);
+
+                if (mRenderSuspended)
+                    mFeed.pause();
+            }
+        });
+
+        updateSuspended();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+
+        mAttached = false;
+        updateSuspended();
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mFeed.unbind();
+                mDisplay.endAnim();
+
+                if (mFrameScheduled) {
+                    mFrameScheduled = false;
+                    Choreographer.getInstance().removeFrameCallback(mRenderCallback);
+                }
+            }
+        });
+
+        synchronized (mThreadLock) {
+            mRenderThread.quitSafely();
+            mRenderThread = null;
+            mRenderHandler = null;
+        }
+
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateSuspended();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateSuspended();
+    }
+
+    /**
+     * Suspends rendering, the drawing animation and the value feed while the
+     * view cannot be seen (detached, hidden, or its window is hidden) and
+     * resumes them once it can be seen again. The animation continues where
+     * it was suspended, the feed delivers its newest state.
+     */
+    private void updateSuspended() {
+
+        final boolean suspend = !mAttached || getWindowVisibility() != VISIBLE || !isShown();
+
+        if (suspend == mSuspended)
+            return;
+
+        mSuspended = suspend;
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mRenderSuspended = suspend;
+                mDisplay.setSuspendedOffscreen(suspend);
+
+                if (suspend) {
+                    mFeed.pause();
+
+                    if (mFrameScheduled) {
+                        mFrameScheduled = false;
+                        Choreographer.getInstance().removeFrameCallback(mRenderCallback);
+                    }
+                } else {
+                    mFeed.resume();
+
+                    // draws what changed while suspended
+                    requestRender();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void onSurfaceTextureAvailable(SurfaceTexture surface, int width, int height) {
+
+        synchronized (mSurfaceLock) {
+            mSurfaceAvailable = true;
+        }
+
+        onSurfaceSize(width, height);
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(SurfaceTexture surface, int width, int height) {
+        onSurfaceSize(width, height);
+    }
+
+    @Override
+    public boolean onSurfaceTextureDestroyed(SurfaceTexture surface) {
+
+        // after this the render thread no longer touches the surface
+        synchronized (mSurfaceLock) {
+            mSurfaceAvailable = false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(SurfaceTexture surface) {
+    }
+
+    /**
+     * lays out the offscreen display for the new surface size
+     * 
+     * @param width
+     * @param height
+     */
+    private void onSurfaceSize(final int width, final int height) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.layout(0, 0, width, height);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * Runs the given task on the render thread. If there is none because the
+     * view is not attached, the task is kept and runs on the render thread
+     * once the view is attached, so animations are never started on the
+     * caller's thread.
+     * 
+     * @param task
+     */
+    private void runOnRenderThread(Runnable task) {
+
+        synchronized (mThreadLock) {
+            if (mRenderHandler != null)
+                mRenderHandler.post(task);
+            else
+                mPendingTasks.add(task);
+        }
+    }
+
+    /**
+     * schedules drawing a frame on the next vsync, must be called on the
+     * render thread
+     */
+    private void requestRender() {
+
+        if (mFrameScheduled || mRenderSuspended || mRenderThread == null)
+            return;
+
+        mFrameScheduled = true;
+        Choreographer.getInstance().postFrameCallback(mRenderCallback);
+    }
+
+    /**
+     * draws the display into the surface, called on the render thread
+     */
+    private void render() {
+
+        synchronized (mSurfaceLock) {
+
+            if (!mSurfaceAvailable)
+                return;
+
+            Canvas c = lockCanvas();
+
+            if (c == null)
+                return;
+
+            try {
+                c.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+                mDisplay.draw(c);
+            } finally {
+                unlockCanvasAndPost(c);
+            }
+        }
+    }
+
+    /**
+     * Publishes a value from any thread, the newest value is shown without
+     * animation on the next frame.
+     * 
+     * @param value
+     * @param total
+     */
+    public void publishValue(float value, float total) {
+        mFeed.publish(value, total);
+    }
+
+    /**
+     * shows the given value, see CircleDisplay.showValue(...)
+     * 
+     * @param toShow
+     * @param total
+     * @param animated
+     */
+    public void showValue(final float toShow, final float total, final boolean animated) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.showValue(toShow, total, animated);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * shows the given values as segments, see CircleDisplay.showSegments(...)
+     * 
+     * @param values
+     * @param colors
+     * @param total
+     * @param animated
+     */
+    public void showSegments(float[] values, int[] colors, final float total,
+            final boolean animated) {
+
+        // the render thread must not see later changes to the arrays
+        final float[] valuesCopy = values.clone();
+        final int[] colorsCopy = colors.clone();
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.showSegments(valuesCopy, colorsCopy, total, animated);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * starts the drawing animation, see CircleDisplay.startAnim()
+     */
+    public void startAnim() {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.startAnim();
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * see CircleDisplay.setUnit(...)
+     * 
+     * @param unit
+     */
+    public void setUnit(final String unit) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.setUnit(unit);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * see CircleDisplay.setColor(...)
+     * 
+     * @param color
+     */
+    public void setColor(final int color) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.setColor(color);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * see CircleDisplay.setStyle(...)
+     * 
+     * @param style
+     */
+    public void setStyle(final CircleDisplayStyle style) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.setStyle(style);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * see CircleDisplay.setTextSize(...)
+     * 
+     * @param size
+     */
+    public void setTextSize(final float size) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.setTextSize(size);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * see CircleDisplay.setValueWidthPercent(...)
+     * 
+     * @param percentFromTotalWidth
+     */
+    public void setValueWidthPercent(final float percentFromTotalWidth) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.setValueWidthPercent(percentFromTotalWidth);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * see CircleDisplay.setDimAlpha(...)
+     * 
+     * @param alpha
+     */
+    public void setDimAlpha(final int alpha) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.setDimAlpha(alpha);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * see CircleDisplay.setStartAngle(...)
+     * 
+     * @param angle
+     */
+    public void setStartAngle(final float angle) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.setStartAngle(angle);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * see CircleDisplay.setFormatDigits(...)
+     * 
+     * @param digits
+     */
+    public void setFormatDigits(final int digits) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.setFormatDigits(digits);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * see CircleDisplay.setValueFormatter(...)
+     * 
+     * @param formatter
+     */
+    public void setValueFormatter(final ValueFormatter formatter) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.setValueFormatter(formatter);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * see CircleDisplay.setCustomText(...)
+     * 
+     * @param custom
+     */
+    public void setCustomText(String[] custom) {
+
+        // the render thread must not see later changes to the array
+        final String[] customCopy = custom == null ? null : custom.clone();
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.setCustomText(customCopy);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * see CircleDisplay.setStepSize(...)
+     * 
+     * @param stepsize
+     */
+    public void setStepSize(final float stepsize) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.setStepSize(stepsize);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * see CircleDisplay.setDrawInnerCircle(...)
+     * 
+     * @param enabled
+     */
+    public void setDrawInnerCircle(final boolean enabled) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.setDrawInnerCircle(enabled);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * see CircleDisplay.setDrawText(...)
+     * 
+     * @param enabled
+     */
+    public void setDrawText(final boolean enabled) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.setDrawText(enabled);
+                requestRender();
+            }
+        });
+    }
+
+    /**
+     * see CircleDisplay.setAnimDuration(...)
+     * 
+     * @param durationmillis
+     */
+    public void setAnimDuration(final int durationmillis) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.setAnimDuration(durationmillis);
+            }
+        });
+    }
+
+    /**
+     * see CircleDisplay.setAnimateFromCurrent(...)
+     * 
+     * @param enabled
+     */
+    public void setAnimateFromCurrent(final boolean enabled) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.setAnimateFromCurrent(enabled);
+            }
+        });
+    }
+
+    /**
+     * see CircleDisplay.setLayerCacheEnabled(...)
+     * 
+     * @param enabled
+     */
+    public void setLayerCacheEnabled(final boolean enabled) {
+
+        runOnRenderThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mDisplay.setLayerCacheEnabled(enabled);
+                requestRender();
+            }
+        });
+    }
+}
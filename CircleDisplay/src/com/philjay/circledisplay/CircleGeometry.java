@@ -0,0 +1,71 @@
+
+package com.philjay.circledisplay;
+
+/**
+ * Immutable snapshot of the layout of a CircleDisplay: center, radii, the box
+ * of the arc and the baseline of the center text. It is computed once when
+ * the size or a size-related setting changes, so drawing and touch handling
+ * only read precomputed values.
+ * 
+ * @author Philipp Jahoda
+ */
+public final class CircleGeometry {
+
+    /** center of the circle in pixels */
+    public final float centerX, centerY;
+
+    /** diameter of the outer circle */
+    public final float diameter;
+
+    /** radius of the outer circle */
+    public final float radius;
+
+    /** radius of the inner circle, where the value bar ends */
+    public final float innerRadius;
+
+    /** squared radii, for comparing against squared distances */
+    public final float radiusSquared, innerRadiusSquared;
+
+    /** bounds of the outer circle, the box the value arc is drawn in */
+    public final float boxLeft, boxTop, boxRight, boxBottom;
+
+    /** bounds of the inner circle */
+    public final float innerBoxLeft, innerBoxTop, innerBoxRight, innerBoxBottom;
+
+    /** y-coordinate of the baseline of the center text */
+    public final float textBaseline;
+
+    /**
+     * Computes the geometry for a view of the given size.
+     * 
+     * @param width width of the view in pixels
+     * @param height height of the view in pixels
+     * @param valueWidthPercent thickness of the value bar in percent of the
+     *            radius
+     * @param textDescent descent of the text paint
+     */
+    public CircleGeometry(int width, int height, float valueWidthPercent, float textDescent) {
+
+        centerX = width / 2;
+        centerY = height / 2;
+
+        diameter = Math.min(width, height);
+        radius = diameter / 2f;
+        innerRadius = radius / 100f * (100f - valueWidthPercent);
+
+        radiusSquared = radius * radius;
+        innerRadiusSquared = innerRadius * innerRadius;
+
+        boxLeft = centerX - radius;
+        boxTop = centerY - radius;
+        boxRight = centerX + radius;
+        boxBottom = centerY + radius;
+
+        innerBoxLeft = centerX - innerRadius;
+        innerBoxTop = centerY - innerRadius;
+        innerBoxRight = centerX + innerRadius;
+        innerBoxBottom = centerY + innerRadius;
+
+        textBaseline = centerY + textDescent;
+    }
+}
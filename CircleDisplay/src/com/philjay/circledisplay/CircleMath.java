@@ -0,0 +1,291 @@
+
+package com.philjay.circledisplay;
+
+/**
+ * Hit-testing, angle and value math of the CircleDisplay, free of
+ * allocations and of Android dependencies, so it can be tested and
+ * benchmarked on a plain JVM. Angles are in degrees, 0° is NORTH and they
+ * grow clockwise, like the angles returned by
+ * CircleDisplay.getAngleForPoint(...).
+ * 
+ * @author Philipp Jahoda
+ */
+public final class CircleMath {
+
+    private static final float PI = (float) Math.PI;
+    private static final float HALF_PI = (float) (Math.PI / 2.0);
+    private static final float RAD_TO_DEG = (float) (180.0 / Math.PI);
+
+    /**
+     * coefficients of the odd polynomial approximating atan(z) on [0, 1], its
+     * maximum error is 1.2e-5 radians (less than 0.001°)
+     */
+    private static final float ATAN_C1 = 0.9998660f;
+    private static final float ATAN_C3 = -0.3302995f;
+    private static final float ATAN_C5 = 0.1801410f;
+    private static final float ATAN_C7 = -0.0851330f;
+    private static final float ATAN_C9 = 0.0208351f;
+
+    private CircleMath() {
+    }
+
+    /**
+     * returns the squared distance of the given point to the center of the
+     * given geometry
+     * 
+     * @param g
+     * @param x
+     * @param y
+     * @return
+     */
+    public static float distanceSquared(CircleGeometry g, float x, float y) {
+        float dx = x - g.centerX;
+        float dy = y - g.centerY;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Returns true if the given point lies on the value bar, meaning at least
+     * as far from the center as the inner radius but closer than the outer
+     * radius. Compares squared distances, so no square root is needed.
+     * 
+     * @param g
+     * @param x
+     * @param y
+     * @return
+     */
+    public static boolean isInRing(CircleGeometry g, float x, float y) {
+        return isInRing(distanceSquared(g, x, y), g.innerRadiusSquared, g.radiusSquared);
+    }
+
+    /**
+     * returns true if the given squared distance from the center lies in the
+     * ring between the given squared inner (inclusive) and outer (exclusive)
+     * radius
+     * 
+     * @param distSq
+     * @param innerRadiusSquared
+     * @param outerRadiusSquared
+     * @return
+     */
+    public static boolean isInRing(float distSq, float innerRadiusSquared,
+            float outerRadiusSquared) {
+        return distSq >= innerRadiusSquared && distSq < outerRadiusSquared;
+    }
+
+    /**
+     * returns the angle of the given point relative to the center of the given
+     * geometry, between 0 (inclusive) and 360 (exclusive)
+     * 
+     * @param g
+     * @param x
+     * @param y
+     * @return
+     */
+    public static float angleForPoint(CircleGeometry g, float x, float y) {
+        return angleForOffset(x - g.centerX, y - g.centerY);
+    }
+
+    /**
+     * returns the angle of the given offset from the center (in view
+     * coordinates, y pointing down), between 0 (inclusive) and 360 (exclusive)
+     * 
+     * @param dx
+     * @param dy
+     * @return
+     */
+    public static float angleForOffset(float dx, float dy) {
+
+        float angle = atan2Degrees(dx, -dy);
+
+        if (angle < 0f)
+            angle += 360f;
+
+        // float rounding can push tiny negative angles up to 360
+        if (angle >= 360f)
+            angle = 0f;
+
+        return angle;
+    }
+
+    /**
+     * Returns the shortest signed difference from one angle to another,
+     * between -180 (inclusive) and 180 (exclusive). Used to track a touch
+     * across the 0°/360° boundary.
+     * 
+     * @param from
+     * @param to
+     * @return
+     */
+    public static float angleDelta(float from, float to) {
+
+        float delta = (to - from) % 360f;
+
+        if (delta >= 180f)
+            delta -= 360f;
+        else if (delta < -180f)
+            delta += 360f;
+
+        return delta;
+    }
+
+    /**
+     * Computes the bounding box of the part of the circle that is swept
+     * between two sweep angles of the value arc, including the center, and
+     * writes it into out as left, top, right, bottom. Angles follow the Canvas
+     * convention used for drawing, 0° is EAST.
+     * 
+     * @param g
+     * @param startAngle start angle of the arc
+     * @param fromSweep
+     * @param toSweep
+     * @param out array of at least 4 floats
+     */
+    public static void sweepBounds(CircleGeometry g, float startAngle, float fromSweep,
+            float toSweep, float[] out) {
+
+        float a0 = startAngle + Math.min(fromSweep, toSweep);
+        float a1 = startAngle + Math.max(fromSweep, toSweep);
+
+        if (a1 - a0 >= 360f) {
+            out[0] = g.boxLeft;
+            out[1] = g.boxTop;
+            out[2] = g.boxRight;
+            out[3] = g.boxBottom;
+            return;
+        }
+
+        out[0] = out[2] = g.centerX;
+        out[1] = out[3] = g.centerY;
+
+        includeAngle(g, a0, out);
+        includeAngle(g, a1, out);
+
+        // the arc reaches the box wherever it crosses one of the axes
+        float axis = (float) Math.ceil(a0 / 90f) * 90f;
+
+        for (; axis <= a1; axis += 90f) {
+            includeAngle(g, axis, out);
+        }
+    }
+
+    /**
+     * widens the given bounds by the point on the outer circle at the given
+     * angle
+     */
+    private static void includeAngle(CircleGeometry g, float angle, float[] out) {
+
+        double rad = Math.toRadians(angle);
+        float x = g.centerX + g.radius * (float) Math.cos(rad);
+        float y = g.centerY + g.radius * (float) Math.sin(rad);
+
+        if (x < out[0])
+            out[0] = x;
+        if (y < out[1])
+            out[1] = y;
+        if (x > out[2])
+            out[2] = x;
+        if (y > out[3])
+            out[3] = y;
+    }
+
+    /**
+     * Fast replacement for Math.toDegrees(Math.atan2(y, x)), returns the angle
+     * in degrees between -180 and 180. Uses a polynomial approximation of atan
+     * on [0, 1] and the octant symmetries, the maximum error is less than
+     * 0.001°. Returns 0 for the origin.
+     * 
+     * @param y
+     * @param x
+     * @return
+     */
+    public static float atan2Degrees(float y, float x) {
+
+        float ax = Math.abs(x);
+        float ay = Math.abs(y);
+
+        if (ax == 0f && ay == 0f)
+            return 0f;
+
+        // reduce to z in [0, 1] so the polynomial stays accurate
+        boolean steep = ay > ax;
+        float z = steep ? ax / ay : ay / ax;
+        float z2 = z * z;
+
+        float a = z * (ATAN_C1 + z2 * (ATAN_C3 + z2 * (ATAN_C5 + z2 * (ATAN_C7 + z2 * ATAN_C9))));
+
+        if (steep)
+            a = HALF_PI - a;
+
+        if (x < 0f)
+            a = PI - a;
+
+        if (y < 0f)
+            a = -a;
+
+        return a * RAD_TO_DEG;
+    }
+
+    /**
+     * returns the angle representing the given value for the given maximum
+     * value
+     * 
+     * @param value
+     * @param maxValue
+     * @return
+     */
+    public static float angleForValue(float value, float maxValue) {
+        return value / maxValue * 360f;
+    }
+
+    /**
+     * returns the value representing the given angle for the given maximum
+     * value
+     * 
+     * @param angle
+     * @param maxValue
+     * @return
+     */
+    public static float valueForAngle(float angle, float maxValue) {
+        return angle / 360f * maxValue;
+    }
+
+    /**
+     * Snaps the given value to the closest multiple of the step size. Values
+     * exactly halfway between two steps are rounded down. A step size of 0
+     * returns the value unchanged.
+     * 
+     * @param value
+     * @param stepSize
+     * @return
+     */
+    public static float snapToStep(float value, float stepSize) {
+
+        if (stepSize == 0f)
+            return value;
+
+        float remainder = value % stepSize;
+
+        // check if the value is closer to the next, or the previous step
+        if (remainder <= stepSize / 2f)
+            return value - remainder;
+        else
+            return value - remainder + stepSize;
+    }
+
+    /**
+     * Converts a touch position into the selected value, snapped to the step
+     * size. This is what the CircleDisplay does for every touch on the bar.
+     * 
+     * @param g
+     * @param x
+     * @param y
+     * @param maxValue
+     * @param stepSize
+     * @return
+     */
+    public static float valueForPoint(CircleGeometry g, float x, float y, float maxValue,
+            float stepSize) {
+        return snapToStep(valueForAngle(angleForPoint(g, x, y), maxValue), stepSize);
+    }
+}
@@ -0,0 +1,55 @@
+
+package com.philjay.circledisplay;
+
+/**
+ * Drawing surface the CircleRenderer draws a gauge onto. Implementations
+ * decide how the parts are styled, e.g. with the Paints of a CircleDisplay
+ * on an Android Canvas, or with colors and a font on a Java2D image.
+ * Coordinates are in pixels, angles follow the Android Canvas convention
+ * (degrees, 0° is EAST, growing clockwise).
+ * 
+ * @author Philipp Jahoda
+ */
+public interface CircleRenderBackend {
+
+    /**
+     * draws the dimmed circle behind the value
+     * 
+     * @param cx
+     * @param cy
+     * @param radius
+     */
+    public void drawBackgroundCircle(float cx, float cy, float radius);
+
+    /**
+     * draws the value as a pie slice of the oval inside the given bounds
+     * 
+     * @param left
+     * @param top
+     * @param right
+     * @param bottom
+     * @param startAngle
+     * @param sweepAngle
+     */
+    public void drawValueArc(float left, float top, float right, float bottom,
+            float startAngle, float sweepAngle);
+
+    /**
+     * draws the inner circle on top of the value
+     * 
+     * @param cx
+     * @param cy
+     * @param radius
+     */
+    public void drawInnerCircle(float cx, float cy, float radius);
+
+    /**
+     * draws the given chars horizontally centered at x on the given baseline
+     * 
+     * @param text
+     * @param length
+     * @param x
+     * @param baseline
+     */
+    public void drawCenterText(char[] text, int length, float x, float baseline);
+}
@@ -0,0 +1,99 @@
+
+package com.philjay.circledisplay;
+
+/**
+ * Platform-independent drawing logic of the CircleDisplay. Lays the parts of
+ * a gauge out according to a CircleGeometry and draws them through a
+ * CircleRenderBackend, so the same pipeline renders on an Android Canvas and
+ * headless on a plain JVM. Has no state and does not allocate.
+ * 
+ * @author Philipp Jahoda
+ */
+public final class CircleRenderer {
+
+    private CircleRenderer() {
+    }
+
+    /**
+     * Renders a complete gauge: background circle, value, inner circle and
+     * center text.
+     * 
+     * @param b the backend to draw onto
+     * @param g geometry of the gauge
+     * @param value the value to show
+     * @param maxValue the maximum value
+     * @param startAngle start angle of the value arc
+     * @param drawInner if false, the inner circle is left out
+     * @param formatter formatter of the center text, null for no text
+     * @param unit unit appended to the center text
+     * @param buffer buffer for the center text, see
+     *            ValueFormatter.getMaxLength(...)
+     */
+    public static void render(CircleRenderBackend b, CircleGeometry g, float value,
+            float maxValue, float startAngle, boolean drawInner, ValueFormatter formatter,
+            char[] unit, char[] buffer) {
+
+        drawWholeCircle(b, g);
+
+        drawValue(b, g, startAngle, CircleMath.angleForValue(value, maxValue));
+
+        if (drawInner)
+            drawInnerCircle(b, g);
+
+        if (formatter != null)
+            drawText(b, g, formatter, value, unit, buffer);
+    }
+
+    /**
+     * draws the background circle with less alpha
+     * 
+     * @param b
+     * @param g
+     */
+    public static void drawWholeCircle(CircleRenderBackend b, CircleGeometry g) {
+        b.drawBackgroundCircle(g.centerX, g.centerY, g.radius);
+    }
+
+    /**
+     * draws the actual value slice/arc with the given sweep angle
+     * 
+     * @param b
+     * @param g
+     * @param startAngle
+     * @param angle
+     */
+    public static void drawValue(CircleRenderBackend b, CircleGeometry g, float startAngle,
+            float angle) {
+        b.drawValueArc(g.boxLeft, g.boxTop, g.boxRight, g.boxBottom, startAngle, angle);
+    }
+
+    /**
+     * draws the inner circle
+     * 
+     * @param b
+     * @param g
+     */
+    public static void drawInnerCircle(CircleRenderBackend b, CircleGeometry g) {
+        b.drawInnerCircle(g.centerX, g.centerY, g.innerRadius);
+    }
+
+    /**
+     * Formats the value and draws it in the center, returns the number of
+     * chars drawn from the buffer.
+     * 
+     * @param b
+     * @param g
+     * @param formatter
+     * @param value
+     * @param unit
+     * @param buffer
+     * @return
+     */
+    public static int drawText(CircleRenderBackend b, CircleGeometry g,
+            ValueFormatter formatter, float value, char[] unit, char[] buffer) {
+
+        int length = formatter.format(value, unit, buffer);
+        b.drawCenterText(buffer, length, g.centerX, g.textBaseline);
+        return length;
+    }
+}
@@ -0,0 +1,442 @@
+
+package com.philjay.circledisplay;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Paint.Align;
+import android.graphics.Paint.Style;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.util.LruCache;
+
+/**
+ * Renders static gauges into Bitmaps, e.g. for thumbnails in lists or for
+ * home-screen widgets where a live CircleDisplay per item is too expensive.
+ * Uses the same rendering pipeline as the CircleDisplay. Snapshots are cached
+ * by value step, maximum, style and size with LRU eviction, so drawing a list
+ * item again is a bitmap blit.<br>
+ * <br>
+ * Snapshots are shared by everyone requesting the same gauge, so never
+ * recycle or modify them. Hand every snapshot back with
+ * releaseSnapshot(...) once it is no longer drawn. The bitmaps of snapshots
+ * that have been released by all callers and evicted from the cache are
+ * pooled by width, height and config and reused for new snapshots. A
+ * snapshot that is never released stays valid and is left to the garbage
+ * collector.
+ * 
+ * @author Philipp Jahoda
+ */
+public class CircleSnapshotRenderer {
+
+    /** maximum number of pooled bitmaps per size */
+    private static final int MAX_POOLED_PER_SIZE = 4;
+
+    /** style of snapshots that are requested without one */
+    private static final CircleDisplayStyle DEFAULT_STYLE = new CircleDisplayStyle.Builder()
+            .build();
+
+    /**
+     * callback for snapshots that are rendered in the background
+     */
+    public interface SnapshotCallback {
+
+        /**
+         * called on the main thread when the snapshot is ready
+         * 
+         * @param snapshot
+         */
+        public void onSnapshot(Bitmap snapshot);
+    }
+
+    private final Resources mResources;
+
+    /** cached snapshots, the size is counted in bytes */
+    private final LruCache<Key, Bitmap> mCache;
+
+    /**
+     * owners of the snapshots and the pool of free bitmaps, cache lookups
+     * that hand out a snapshot are synchronized on it
+     */
+    private final SnapshotPool<Bitmap> mPool = new SnapshotPool<Bitmap>(MAX_POOLED_PER_SIZE);
+
+    /** paints and buffers for rendering, guarded by mRenderLock */
+    private final Paint mArcPaint;
+    private final Paint mInnerCirclePaint;
+    private final Paint mTextPaint;
+    private final CanvasRenderBackend mBackend = new CanvasRenderBackend();
+    private final Canvas mCanvas = new Canvas();
+    private char[] mTextBuffer;
+
+    private final Object mRenderLock = new Object();
+
+    /** formatter of the center text, guarded by mRenderLock */
+    private ValueFormatter mFormatter = new FixedPointValueFormatter(1);
+
+    /** the unit that is displayed next to the value, guarded by mRenderLock */
+    private char[] mUnitChars = new char[0];
+
+    /** angle where the value starts, guarded by mRenderLock */
+    private float mStartAngle = 270f;
+
+    /** thread snapshots are rendered on in the background, created lazily */
+    private HandlerThread mRenderThread;
+    private Handler mRenderHandler;
+
+    private final Handler mMainHandler;
+
+    /**
+     * @param context
+     * @param maxCacheBytes maximum number of bytes the cached snapshots may
+     *            take
+     */
+    public CircleSnapshotRenderer(Context context, int maxCacheBytes) {
+
+        mResources = context.getResources();
+        mMainHandler = new Handler(Looper.getMainLooper());
+
+        mCache = new LruCache<Key, Bitmap>(maxCacheBytes) {
+
+            @Override
+            protected int sizeOf(Key key, Bitmap value) {
+                return value.getByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Key key, Bitmap oldValue,
+                    Bitmap newValue) {
+                if (oldValue != newValue)
+                    mPool.evicted(oldValue);
+            }
+        };
+
+        mArcPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mArcPaint.setStyle(Style.FILL);
+
+        mInnerCirclePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mInnerCirclePaint.setStyle(Style.FILL);
+
+        mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mTextPaint.setStyle(Style.STROKE);
+        mTextPaint.setTextAlign(Align.CENTER);
+
+        mTextBuffer = new char[mFormatter.getMaxLength(0)];
+    }
+
+    /**
+     * Returns the snapshot of a gauge showing the given value, rendering it if
+     * it is not cached. Can be called from any thread, but prefer
+     * requestSnapshot(...) on the UI thread. Hand the snapshot back with
+     * releaseSnapshot(...) once it is no longer drawn.
+     * 
+     * @param value the value to show, snapped to the step size
+     * @param maxValue the maximum value
+     * @param stepSize step size the value is snapped to, 0 for none
+     * @param style style of the gauge, null for the defaults
+     * @param size width and height of the snapshot in pixels
+     * @return
+     */
+    public Bitmap getSnapshot(float value, float maxValue, float stepSize,
+            CircleDisplayStyle style, int size) {
+
+        Key key = new Key(CircleMath.snapToStep(value, stepSize), maxValue, style, size);
+
+        Bitmap snapshot = acquireCached(key);
+
+        if (snapshot != null)
+            return snapshot;
+
+        // check again under the lock, so a snapshot is never rendered twice
+        synchronized (mRenderLock) {
+
+            snapshot = acquireCached(key);
+
+            if (snapshot == null) {
+                snapshot = render(key);
+
+                synchronized (mPool) {
+                    mPool.added(snapshot, new PoolKey(key.size, key.size, snapshot.getConfig()));
+                    mPool.acquire(snapshot);
+                    mCache.put(key, snapshot);
+                }
+            }
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Hands a snapshot back once it is no longer drawn, e.g. when the list
+     * item showing it is recycled. Release every snapshot returned by
+     * getSnapshot(...) or delivered to a SnapshotCallback exactly once, and do
+     * not draw it afterwards: once all callers released it and it has been
+     * evicted, its bitmap is drawn over for another snapshot.
+     * 
+     * @param snapshot
+     */
+    public void releaseSnapshot(Bitmap snapshot) {
+        mPool.release(snapshot);
+    }
+
+    /**
+     * returns the cached snapshot for the given key and records that it has
+     * been handed out, null if it is not cached
+     * 
+     * @param key
+     * @return
+     */
+    private Bitmap acquireCached(Key key) {
+
+        // lookup and acquire are atomic, so the snapshot cannot be evicted
+        // and pooled in between
+        synchronized (mPool) {
+
+            Bitmap snapshot = mCache.get(key);
+
+            if (snapshot != null)
+                mPool.acquire(snapshot);
+
+            return snapshot;
+        }
+    }
+
+    /**
+     * Delivers the snapshot of a gauge showing the given value to the
+     * callback. Cached snapshots are delivered right away, others are
+     * rendered on a background thread and delivered on the main thread. Hand
+     * the snapshot back with releaseSnapshot(...) once it is no longer drawn.
+     * 
+     * @param value the value to show, snapped to the step size
+     * @param maxValue the maximum value
+     * @param stepSize step size the value is snapped to, 0 for none
+     * @param style style of the gauge, null for the defaults
+     * @param size width and height of the snapshot in pixels
+     * @param callback
+     */
+    public void requestSnapshot(final float value, final float maxValue, final float stepSize,
+            final CircleDisplayStyle style, final int size, final SnapshotCallback callback) {
+
+        Bitmap cached = acquireCached(new Key(CircleMath.snapToStep(value, stepSize), maxValue,
+                style, size));
+
+        if (cached != null) {
+            callback.onSnapshot(cached);
+            return;
+        }
+
+        getRenderHandler().post(new Runnable() {
+
+            @Override
+            public void run() {
+
+                final Bitmap snapshot = getSnapshot(value, maxValue, stepSize, style, size);
+
+                mMainHandler.post(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        callback.onSnapshot(snapshot);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Clears the cache and the pool and stops the background thread. The
+     * renderer can still be used afterwards.
+     */
+    public void release() {
+
+        synchronized (this) {
+            if (mRenderThread != null) {
+                mRenderThread.quitSafely();
+                mRenderThread = null;
+                mRenderHandler = null;
+            }
+        }
+
+        mCache.evictAll();
+        mPool.clear();
+    }
+
+    /**
+     * sets the formatter of the center text, clears the cache
+     * 
+     * @param formatter
+     */
+    public void setValueFormatter(ValueFormatter formatter) {
+
+        synchronized (mRenderLock) {
+            mFormatter = formatter;
+            mTextBuffer = new char[formatter.getMaxLength(mUnitChars.length)];
+        }
+
+        mCache.evictAll();
+    }
+
+    /**
+     * set the unit that is displayed next to the value, clears the cache
+     * 
+     * @param unit
+     */
+    public void setUnit(String unit) {
+
+        synchronized (mRenderLock) {
+            mUnitChars = unit == null ? new char[0] : unit.toCharArray();
+            mTextBuffer = new char[mFormatter.getMaxLength(mUnitChars.length)];
+        }
+
+        mCache.evictAll();
+    }
+
+    /**
+     * set the starting angle for the value, 270 is NORTH, clears the cache
+     * 
+     * @param angle
+     */
+    public void setStartAngle(float angle) {
+
+        synchronized (mRenderLock) {
+            mStartAngle = angle;
+        }
+
+        mCache.evictAll();
+    }
+
+    /**
+     * renders the snapshot for the given key into a pooled or new bitmap
+     * 
+     * @param key
+     * @return
+     */
+    private Bitmap render(Key key) {
+
+        Bitmap bitmap = mPool.take(new PoolKey(key.size, key.size, Bitmap.Config.ARGB_8888));
+
+        if (bitmap != null)
+            bitmap.eraseColor(Color.TRANSPARENT);
+        else
+            bitmap = Bitmap.createBitmap(key.size, key.size, Bitmap.Config.ARGB_8888);
+
+        synchronized (mRenderLock) {
+
+            CircleDisplayStyle style = key.style;
+
+            mArcPaint.setColor(style.getColor());
+            mInnerCirclePaint.setColor(style.getInnerColor());
+            mTextPaint.setColor(style.getTextColor());
+            mTextPaint.setTextSize(CircleDisplay.Utils.convertDpToPixel(mResources,
+                    style.getTextSize()));
+            mTextPaint.setTypeface(style.getTypeface());
+
+            CircleGeometry g = new CircleGeometry(key.size, key.size,
+                    style.getValueWidthPercent(), mTextPaint.descent());
+
+            mCanvas.setBitmap(bitmap);
+            mBackend.begin(mCanvas, mArcPaint, mInnerCirclePaint, mTextPaint,
+                    style.getDimAlpha());
+
+            CircleRenderer.render(mBackend, g, key.value, key.maxValue, mStartAngle, true,
+                    mFormatter, mUnitChars, mTextBuffer);
+
+            mCanvas.setBitmap(null);
+        }
+
+        return bitmap;
+    }
+
+    private synchronized Handler getRenderHandler() {
+
+        if (mRenderHandler == null) {
+            mRenderThread = new HandlerThread("CircleSnapshotRender",
+                    Process.THREAD_PRIORITY_BACKGROUND);
+            mRenderThread.start();
+            mRenderHandler = new Handler(mRenderThread.getLooper());
+        }
+
+        return mRenderHandler;
+    }
+
+    /**
+     * cache key of a snapshot
+     */
+    private static final class Key {
+
+        final float value;
+        final float maxValue;
+        final CircleDisplayStyle style;
+        final int size;
+
+        Key(float value, float maxValue, CircleDisplayStyle style, int size) {
+            this.value = value;
+            this.maxValue = maxValue;
+            this.style = style != null ? style : DEFAULT_STYLE;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+
+            Key k = (Key) o;
+            return Float.compare(value, k.value) == 0
+                    && Float.compare(maxValue, k.maxValue) == 0
+                    && size == k.size && style.equals(k.style);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Float.floatToIntBits(value);
+            result = 31 * result + Float.floatToIntBits(maxValue);
+            result = 31 * result + style.hashCode();
+            result = 31 * result + size;
+            return result;
+        }
+    }
+
+    /**
+     * pool key of a bitmap
+     */
+    private static final class PoolKey {
+
+        final int width;
+        final int height;
+        final Bitmap.Config config;
+
+        PoolKey(int width, int height, Bitmap.Config config) {
+            this.width = width;
+            this.height = height;
+            this.config = config;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o)
+                return true;
+            if (!(o instanceof PoolKey))
+                return false;
+
+            PoolKey k = (PoolKey) o;
+            return width == k.width && height == k.height && config == k.config;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = width;
+            result = 31 * result + height;
+            result = 31 * result + (config != null ? config.hashCode() : 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+
+package com.philjay.circledisplay;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+/**
+ * Table of custom labels drawn instead of the value in the center of the
+ * CircleDisplay. All labels are measured in advance, so drawing a label
+ * does not measure anything. With auto-fit, one text size is chosen for all
+ * labels so that each of them fits inside the inner circle. The size is only
+ * searched again when the labels, the text paint size or typeface, or the
+ * inner radius change.
+ * 
+ * @author Philipp Jahoda
+ */
+final class CustomTextTable {
+
+    /** smallest text size auto-fit goes down to, in pixels */
+    private static final float MIN_TEXT_SIZE = 1f;
+
+    /** precision of the auto-fit search, in pixels */
+    private static final float FIT_PRECISION = 0.25f;
+
+    private final String[] mLabels;
+
+    /** widths of the labels at the chosen text size */
+    private final float[] mWidths;
+
+    /** text size the labels are drawn with */
+    private float mTextSize;
+
+    /** offset of the baseline from the center at the chosen text size */
+    private float mBaselineOffset;
+
+    /** state the current layout was computed for */
+    private boolean mLaidOut = false;
+    private float mSourceTextSize;
+    private Typeface mSourceTypeface;
+    private float mSourceRadius;
+    private boolean mSourceAutoFit;
+
+    CustomTextTable(String[] labels) {
+        mLabels = labels;
+        mWidths = new float[labels.length];
+    }
+
+    /**
+     * returns the number of labels
+     * 
+     * @return
+     */
+    int size() {
+        return mLabels.length;
+    }
+
+    /**
+     * Measures the labels and chooses the text size, if anything changed
+     * since the last layout. The paint is left as it was.
+     * 
+     * @param p the text paint, its size is the largest size used
+     * @param innerRadius radius the labels need to fit into
+     * @param autoFit if false, the labels keep the size of the paint
+     */
+    void layout(Paint p, float innerRadius, boolean autoFit) {
+
+        float sourceSize = p.getTextSize();
+
+        if (mLaidOut && sourceSize == mSourceTextSize && p.getTypeface() == mSourceTypeface
+                && innerRadius == mSourceRadius && autoFit == mSourceAutoFit)
+            return;
+
+        mLaidOut = true;
+        mSourceTextSize = sourceSize;
+        mSourceTypeface = p.getTypeface();
+        mSourceRadius = innerRadius;
+        mSourceAutoFit = autoFit;
+
+        float size = sourceSize;
+
+        if (autoFit && !fits(p, size, innerRadius)) {
+
+            // binary search for the largest size at which all labels fit
+            float low = MIN_TEXT_SIZE;
+            float high = sourceSize;
+
+            while (high - low > FIT_PRECISION) {
+                float mid = (low + high) / 2f;
+
+                if (fits(p, mid, innerRadius))
+                    low = mid;
+                else
+                    high = mid;
+            }
+
+            size = low;
+        }
+
+        p.setTextSize(size);
+
+        for (int i = 0; i < mLabels.length; i++)
+            mWidths[i] = mLabels[i] == null ? 0f : p.measureText(mLabels[i]);
+
+        mTextSize = size;
+        mBaselineOffset = p.descent();
+
+        p.setTextSize(sourceSize);
+    }
+
+    /**
+     * Returns true if every label fits inside a circle of the given radius
+     * when drawn with the given text size at the center, with the baseline
+     * the CircleDisplay uses (center + descent).
+     * 
+     * @param p
+     * @param size
+     * @param radius
+     * @return
+     */
+    private boolean fits(Paint p, float size, float radius) {
+
+        p.setTextSize(size);
+
+        float descent = p.descent();
+
+        // vertical distance of the farthest text edge from the center
+        float dy = Math.max(Math.abs(descent + p.ascent()), 2f * descent);
+        float maxDxSquared = radius * radius - dy * dy;
+
+        if (maxDxSquared <= 0f)
+            return false;
+
+        for (int i = 0; i < mLabels.length; i++) {
+
+            if (mLabels[i] == null)
+                continue;
+
+            float dx = p.measureText(mLabels[i]) / 2f;
+
+            if (dx * dx > maxDxSquared)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the label index for the given value and step size. Indices out
+     * of range are clamped to the first or last label, -1 if there are no
+     * labels.
+     * 
+     * @param value
+     * @param stepSize
+     * @return
+     */
+    int indexForValue(float value, float stepSize) {
+
+        if (mLabels.length == 0)
+            return -1;
+
+        int index = stepSize > 0f ? (int) (value / stepSize) : 0;
+
+        if (index < 0)
+            return 0;
+        if (index >= mLabels.length)
+            return mLabels.length - 1;
+
+        return index;
+    }
+
+    /**
+     * returns the measured width of the label at the given index
+     * 
+     * @param index
+     * @return
+     */
+    float getWidth(int index) {
+        return index < 0 ? 0f : mWidths[index];
+    }
+
+    /**
+     * Draws the label at the given index centered at cx, with the baseline
+     * below cy by the descent of the chosen text size. layout(...) must have
+     * been called before.
+     * 
+     * @param c
+     * @param p the text paint that was laid out with
+     * @param index
+     * @param cx
+     * @param cy
+     */
+    void draw(Canvas c, Paint p, int index, float cx, float cy) {
+
+        if (index < 0 || mLabels[index] == null)
+            return;
+
+        float sourceSize = p.getTextSize();
+
+        if (mTextSize != sourceSize)
+            p.setTextSize(mTextSize);
+
+        c.drawText(mLabels[index], cx, cy + mBaselineOffset, p);
+
+        if (mTextSize != sourceSize)
+            p.setTextSize(sourceSize);
+    }
+}
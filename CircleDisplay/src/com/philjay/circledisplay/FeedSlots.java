@@ -0,0 +1,174 @@
+
+package com.philjay.circledisplay;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free slots behind the ValueFeed. Any number of producers publish into
+ * them, one consumer takes the values published since its last take, reduced
+ * according to the smoothing policy. Neither side allocates or blocks. Free of
+ * Android dependencies.
+ * 
+ * @author Philipp Jahoda
+ */
+final class FeedSlots {
+
+    /** smoothing policies, see ValueFeed */
+    static final int LATEST = 0;
+    static final int AVERAGE = 1;
+    static final int MIN = 2;
+    static final int MAX = 3;
+
+    /** min/max slot value when nothing has been published since the last take */
+    private static final long EMPTY_MIN_MAX = pack(Float.POSITIVE_INFINITY,
+            Float.NEGATIVE_INFINITY);
+
+    /** packed value/total of the most recently published value */
+    private final AtomicLong mLatest = new AtomicLong(pack(0f, 0f));
+
+    /** packed sum/count of the values published since the last take */
+    private final AtomicLong mSumCount = new AtomicLong(0L);
+
+    /** packed min/max of the values published since the last take */
+    private final AtomicLong mMinMax = new AtomicLong(EMPTY_MIN_MAX);
+
+    /** true if something was published since the last take */
+    private final AtomicBoolean mPublished = new AtomicBoolean(false);
+
+    /** smoothing policy applied to the values of a take */
+    private final int mSmoothing;
+
+    FeedSlots(int smoothing) {
+        mSmoothing = smoothing;
+    }
+
+    /**
+     * returns the smoothing policy of the slots
+     * 
+     * @return
+     */
+    int getSmoothing() {
+        return mSmoothing;
+    }
+
+    /**
+     * writes the value into the slots, can be called from any thread
+     * 
+     * @param value
+     * @param total
+     */
+    void publish(float value, float total) {
+
+        mLatest.set(pack(value, total));
+
+        switch (mSmoothing) {
+            case AVERAGE:
+                addToSum(value);
+                break;
+            case MIN:
+            case MAX:
+                addToMinMax(value);
+                break;
+        }
+
+        // set last, so a take that sees the flag also sees the value
+        mPublished.set(true);
+    }
+
+    /**
+     * returns true if something was published since the last take
+     * 
+     * @return
+     */
+    boolean hasPublished() {
+        return mPublished.get();
+    }
+
+    /**
+     * Takes the values published since the last take, reduced according to
+     * the smoothing policy. Only one thread may take.
+     * 
+     * @param out receives the reduced value at 0 and the most recently
+     *            published total at 1
+     * @return false if nothing was published since the last take, out is left
+     *         untouched then
+     */
+    boolean take(float[] out) {
+
+        if (!mPublished.getAndSet(false))
+            return false;
+
+        long latest = mLatest.get();
+        float value = unpackHigh(latest);
+
+        switch (mSmoothing) {
+            case AVERAGE:
+                long sumCount = mSumCount.getAndSet(0L);
+                int count = (int) sumCount;
+                if (count > 0)
+                    value = unpackHigh(sumCount) / count;
+                break;
+            case MIN:
+                long minMax = mMinMax.getAndSet(EMPTY_MIN_MAX);
+                if (minMax != EMPTY_MIN_MAX)
+                    value = unpackHigh(minMax);
+                break;
+            case MAX:
+                minMax = mMinMax.getAndSet(EMPTY_MIN_MAX);
+                if (minMax != EMPTY_MIN_MAX)
+                    value = unpackLow(minMax);
+                break;
+        }
+
+        out[0] = value;
+        out[1] = unpackLow(latest);
+        return true;
+    }
+
+    /**
+     * adds the value to the packed sum/count slot
+     * 
+     * @param value
+     */
+    private void addToSum(float value) {
+
+        long current, next;
+
+        do {
+            current = mSumCount.get();
+            float sum = unpackHigh(current) + value;
+            int count = (int) current + 1;
+            next = ((long) Float.floatToRawIntBits(sum) << 32) | (count & 0xffffffffL);
+        } while (!mSumCount.compareAndSet(current, next));
+    }
+
+    /**
+     * widens the packed min/max slot by the value
+     * 
+     * @param value
+     */
+    private void addToMinMax(float value) {
+
+        long current, next;
+
+        do {
+            current = mMinMax.get();
+            next = pack(Math.min(unpackHigh(current), value), Math.max(unpackLow(current), value));
+        } while (current != next && !mMinMax.compareAndSet(current, next));
+    }
+
+    /** packs two floats into one long, high and low 32 bits */
+    private static long pack(float high, float low) {
+        return ((long) Float.floatToRawIntBits(high) << 32)
+                | (Float.floatToRawIntBits(low) & 0xffffffffL);
+    }
+
+    private static float unpackHigh(long packed) {
+        return Float.intBitsToFloat((int) (packed >>> 32));
+    }
+
+    private static float unpackLow(long packed) {
+        return Float.intBitsToFloat((int) packed);
+    }
+}
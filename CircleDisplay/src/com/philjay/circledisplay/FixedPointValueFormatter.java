@@ -0,0 +1,240 @@
+
+package com.philjay.circledisplay;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Default ValueFormatter of the CircleDisplay. Formats values with a fixed
+ * number of decimal places and grouped thousands, like a DecimalFormat with
+ * the pattern "###,###,###,##0.0", but without allocating. Like the
+ * DecimalFormat, values are rounded half-even and negative values that round
+ * to zero keep their sign ("-0.0"). Values too large to be scaled into a long
+ * (above 9e17 with one decimal place) and formatters with more than 12
+ * decimal places go through a BigDecimal instead, which allocates. Instances
+ * are immutable and can be shared between views.
+ * 
+ * @author Philipp Jahoda
+ */
+public class FixedPointValueFormatter implements ValueFormatter {
+
+    /** more decimal places than a float has significant digits make no sense */
+    private static final int MAX_DIGITS = 15;
+
+    /**
+     * space needed for sign, the 39 integer digits of the largest float,
+     * separators and decimals
+     */
+    private static final int MAX_NUMBER_LENGTH = 72;
+
+    /** scaled values from here on do not fit into a long after rounding */
+    private static final double MAX_SCALED = 9e18;
+
+    /**
+     * up to this many decimal places, a float scaled by 10^digits is exact in
+     * a double (24 bits of the float and up to 28 bits of 5^digits), so ties
+     * can be told apart from values close to them
+     */
+    private static final int MAX_EXACT_DIGITS = 12;
+
+    /** number of decimal places */
+    private final int mDigits;
+
+    /** factor the value is scaled by before rounding, 10^mDigits */
+    private final double mFactor;
+
+    /** separator used between groups of thousands */
+    private final char mGroupingSeparator;
+
+    /** separator used between the integer and the decimal places */
+    private final char mDecimalSeparator;
+
+    /** texts of infinite values and NaN */
+    private final char[] mInfinity;
+    private final char[] mNaN;
+
+    /**
+     * Creates a formatter with the given number of decimal places, using the
+     * separators of the default locale.
+     * 
+     * @param digits
+     */
+    public FixedPointValueFormatter(int digits) {
+        this(digits, new DecimalFormatSymbols());
+    }
+
+    /**
+     * Creates a formatter with the given number of decimal places, using the
+     * separators of the given symbols.
+     * 
+     * @param digits
+     * @param symbols
+     */
+    public FixedPointValueFormatter(int digits, DecimalFormatSymbols symbols) {
+        mDigits = Math.max(0, Math.min(digits, MAX_DIGITS));
+        mFactor = Math.pow(10.0, mDigits);
+        mGroupingSeparator = symbols.getGroupingSeparator();
+        mDecimalSeparator = symbols.getDecimalSeparator();
+        mInfinity = symbols.getInfinity().toCharArray();
+        mNaN = symbols.getNaN().toCharArray();
+    }
+
+    /**
+     * returns the number of decimal places used by this formatter
+     * 
+     * @return
+     */
+    public int getDigits() {
+        return mDigits;
+    }
+
+    @Override
+    public int format(float value, char[] unit, char[] buffer) {
+
+        double abs = Math.abs((double) value) * mFactor;
+
+        if (!(abs < MAX_SCALED) || mDigits > MAX_EXACT_DIGITS)
+            return formatLarge(value, unit, buffer);
+
+        // round half-even, abs is exact so the fraction is as well
+        long scaled = (long) abs;
+        double fraction = abs - scaled;
+
+        if (fraction > 0.5 || (fraction == 0.5 && (scaled & 1) != 0))
+            scaled++;
+
+        // write the number backwards, starting at the end of the reserved space
+        int pos = MAX_NUMBER_LENGTH;
+
+        for (int i = 0; i < mDigits; i++) {
+            buffer[--pos] = (char) ('0' + scaled % 10);
+            scaled /= 10;
+        }
+
+        if (mDigits > 0)
+            buffer[--pos] = mDecimalSeparator;
+
+        int groupCount = 0;
+
+        do {
+            if (groupCount == 3) {
+                buffer[--pos] = mGroupingSeparator;
+                groupCount = 0;
+            }
+            buffer[--pos] = (char) ('0' + scaled % 10);
+            scaled /= 10;
+            groupCount++;
+        } while (scaled > 0);
+
+        if (isNegative(value))
+            buffer[--pos] = '-';
+
+        return finish(pos, unit, buffer);
+    }
+
+    /**
+     * returns true if the sign bit of the value is set, also for -0
+     * 
+     * @param value
+     * @return
+     */
+    private static boolean isNegative(float value) {
+        return Float.floatToIntBits(value) < 0;
+    }
+
+    /**
+     * Formats values whose scaled value does not fit into a long or is not
+     * exact, like format(...) but through a BigDecimal. Infinite values and
+     * NaN are written like a DecimalFormat would.
+     * 
+     * @param value
+     * @param unit
+     * @param buffer
+     * @return
+     */
+    private int formatLarge(float value, char[] unit, char[] buffer) {
+
+        int pos = MAX_NUMBER_LENGTH;
+
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+
+            char[] text = Float.isNaN(value) ? mNaN : mInfinity;
+
+            pos -= text.length;
+            System.arraycopy(text, 0, buffer, pos, text.length);
+
+            if (value < 0f)
+                buffer[--pos] = '-';
+
+            return finish(pos, unit, buffer);
+        }
+
+        double abs = Math.abs((double) value);
+
+        // valueOf(...) keeps the digits a DecimalFormat would print; these
+        // can end in a tie the binary value is not in, which is then broken
+        // by the binary value like the DecimalFormat does
+        BigDecimal shortest = BigDecimal.valueOf(abs);
+        int exact = new BigDecimal(abs).compareTo(shortest);
+
+        RoundingMode mode = exact > 0 ? RoundingMode.HALF_UP
+                : exact < 0 ? RoundingMode.HALF_DOWN : RoundingMode.HALF_EVEN;
+
+        // every digit of the unscaled value, the last mDigits are decimals
+        String digits = shortest.setScale(mDigits, mode).unscaledValue().toString();
+
+        int index = digits.length();
+
+        for (int i = 0; i < mDigits; i++)
+            buffer[--pos] = index > 0 ? digits.charAt(--index) : '0';
+
+        if (mDigits > 0)
+            buffer[--pos] = mDecimalSeparator;
+
+        int groupCount = 0;
+
+        do {
+            if (groupCount == 3) {
+                buffer[--pos] = mGroupingSeparator;
+                groupCount = 0;
+            }
+            buffer[--pos] = index > 0 ? digits.charAt(--index) : '0';
+            groupCount++;
+        } while (index > 0);
+
+        if (isNegative(value))
+            buffer[--pos] = '-';
+
+        return finish(pos, unit, buffer);
+    }
+
+    /**
+     * moves the number written backwards from pos to the start of the buffer
+     * and appends the unit, separated by a space; without a unit nothing is
+     * appended
+     * 
+     * @param pos
+     * @param unit
+     * @param buffer
+     * @return the total length
+     */
+    private int finish(int pos, char[] unit, char[] buffer) {
+
+        int length = MAX_NUMBER_LENGTH - pos;
+        System.arraycopy(buffer, pos, buffer, 0, length);
+
+        if (unit.length == 0)
+            return length;
+
+        buffer[length++] = ' ';
+        System.arraycopy(unit, 0, buffer, length, unit.length);
+
+        return length + unit.length;
+    }
+
+    @Override
+    public int getMaxLength(int unitLength) {
+        return MAX_NUMBER_LENGTH + 1 + unitLength;
+    }
+}
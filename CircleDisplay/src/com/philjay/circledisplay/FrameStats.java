@@ -0,0 +1,109 @@
+
+package com.philjay.circledisplay;
+
+import android.view.Choreographer;
+
+import java.util.Arrays;
+
+/**
+ * Records the intervals between the frames of the main thread's
+ * Choreographer while it is running, for the benchmark activities of the
+ * sample app. A frame counts as janky if it took more than one and a half
+ * refresh intervals.
+ * 
+ * @author Philipp Jahoda
+ */
+final class FrameStats implements Choreographer.FrameCallback {
+
+    /** intervals between frames in nanoseconds */
+    private final long[] mIntervals;
+
+    /** number of recorded intervals */
+    private int mCount = 0;
+
+    /** time of the previous frame, 0 before the first frame */
+    private long mLastFrameNanos = 0;
+
+    /** duration of one refresh interval in nanoseconds */
+    private long mRefreshNanos;
+
+    private boolean mRunning = false;
+
+    /**
+     * @param maxFrames maximum number of frames recorded per run
+     */
+    FrameStats(int maxFrames) {
+        mIntervals = new long[maxFrames];
+    }
+
+    /**
+     * starts recording, forgets the previous run
+     * 
+     * @param refreshRate refresh rate of the display in frames per second
+     */
+    void start(float refreshRate) {
+
+        mRefreshNanos = (long) (1000000000L / refreshRate);
+        mCount = 0;
+        mLastFrameNanos = 0;
+
+        if (!mRunning) {
+            mRunning = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * stops recording, the recorded frames stay available for summary()
+     */
+    void stop() {
+        mRunning = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+
+        if (!mRunning)
+            return;
+
+        if (mLastFrameNanos != 0 && mCount < mIntervals.length)
+            mIntervals[mCount++] = frameTimeNanos - mLastFrameNanos;
+
+        mLastFrameNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * returns the number of frames, the mean, 90th and 99th percentile frame
+     * time and the number of janky frames of the last run as one line
+     * 
+     * @return
+     */
+    String summary() {
+
+        if (mCount == 0)
+            return "no frames";
+
+        long[] sorted = Arrays.copyOf(mIntervals, mCount);
+        Arrays.sort(sorted);
+
+        long sum = 0;
+        int janky = 0;
+
+        for (int i = 0; i < mCount; i++) {
+            sum += sorted[i];
+
+            if (sorted[i] * 2 > mRefreshNanos * 3)
+                janky++;
+        }
+
+        return String.format("%d frames, mean %.2f ms, p90 %.2f ms, p99 %.2f ms, %d janky",
+                mCount, sum / (double) mCount / 1e6, percentile(sorted, 0.9) / 1e6,
+                percentile(sorted, 0.99) / 1e6, janky);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+    }
+}
@@ -0,0 +1,276 @@
+
+package com.philjay.circledisplay;
+
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * Model and shared state of the views that draw several gauges at once,
+ * CircleDisplayGrid and CircleDisplayRings: the gauges themselves, the single
+ * animation clock that drives all of them, the formatter of their texts and
+ * the selection listener.
+ * 
+ * @author Philipp Jahoda
+ */
+final class GaugeGroup {
+
+    /**
+     * model of a single gauge
+     */
+    static final class Gauge {
+
+        /** the value the gauge shows or animates to */
+        float value = 0f;
+
+        /** the maximum value of the gauge, 0 until a value has been shown */
+        float maxValue = 0f;
+
+        /** the value the current animation started from */
+        float fromValue = 0f;
+
+        /** true if the gauge takes part in the current animation */
+        boolean animating = false;
+
+        /** color of the value bar */
+        int color;
+
+        Gauge(int color) {
+            this.color = color;
+        }
+
+        /** returns the value that is drawn for the given animation phase */
+        float displayedValue(float phase) {
+            return animating ? fromValue + (value - fromValue) * phase : value;
+        }
+    }
+
+    /** all gauges, in the order the view lays them out */
+    private final ArrayList<Gauge> mGauges = new ArrayList<Gauge>();
+
+    /** the view that draws the gauges */
+    private final View mView;
+
+    /** the single animation clock shared by all gauges */
+    private final PhaseAnimator mAnimator;
+
+    /** current phase of the shared animation */
+    private float mPhase = 1f;
+
+    /** the formatter shared by all gauges */
+    private ValueFormatter mFormatter = new FixedPointValueFormatter(1);
+
+    /** the unit shared by all gauges */
+    private char[] mUnitChars = new char[] {
+            '%'
+    };
+
+    /** buffer the texts are formatted into */
+    private char[] mTextBuffer = new char[mFormatter.getMaxLength(mUnitChars.length)];
+
+    /** listener called when a value has been selected on touch */
+    private GaugeSelectionListener mListener;
+
+    /**
+     * @param view the view that draws the gauges, invalidated whenever they
+     *            change
+     */
+    GaugeGroup(View view) {
+        mView = view;
+
+        mAnimator = new PhaseAnimator(new PhaseAnimator.PhaseListener() {
+
+            @Override
+            public void onPhaseUpdate(float phase) {
+                mPhase = phase;
+
+                if (phase >= 1f) {
+                    for (int i = 0; i < mGauges.size(); i++)
+                        mGauges.get(i).animating = false;
+                }
+
+                mView.invalidate();
+            }
+        });
+    }
+
+    /**
+     * adds a new gauge at the end and returns its index
+     * 
+     * @param color
+     * @return
+     */
+    int add(int color) {
+        mGauges.add(new Gauge(color));
+        return mGauges.size() - 1;
+    }
+
+    /**
+     * removes all gauges and stops the animation
+     */
+    void clear() {
+        mAnimator.cancel();
+        mGauges.clear();
+    }
+
+    int size() {
+        return mGauges.size();
+    }
+
+    Gauge get(int index) {
+        return mGauges.get(index);
+    }
+
+    /**
+     * returns the value the gauge with the given index currently draws
+     * 
+     * @param index
+     * @return
+     */
+    float getDisplayedValue(int index) {
+        return mGauges.get(index).displayedValue(mPhase);
+    }
+
+    /**
+     * Shows the given value in the gauge with the given index. All gauges that
+     * are animated share one animation, an animated value continues from what
+     * the gauge currently displays.
+     * 
+     * @param index
+     * @param toShow
+     * @param total
+     * @param animated
+     */
+    void showValue(int index, float toShow, float total, boolean animated) {
+
+        Gauge gauge = mGauges.get(index);
+
+        if (animated) {
+
+            // rebase all running gauges onto the restarted clock
+            for (int i = 0; i < mGauges.size(); i++) {
+                Gauge other = mGauges.get(i);
+
+                if (other.animating || other == gauge)
+                    other.fromValue = other.displayedValue(mPhase);
+            }
+
+            gauge.animating = true;
+
+            gauge.value = toShow;
+            gauge.maxValue = total;
+
+            mPhase = 0f;
+            mAnimator.start();
+        } else {
+            gauge.animating = false;
+            gauge.value = toShow;
+            gauge.maxValue = total;
+        }
+
+        mView.invalidate();
+    }
+
+    /**
+     * sets the value of the gauge with the given index as selected by touch,
+     * stops its animation
+     * 
+     * @param index
+     * @param value
+     */
+    void selectValue(int index, float value) {
+
+        Gauge gauge = mGauges.get(index);
+
+        gauge.animating = false;
+        gauge.value = value;
+
+        mView.invalidate();
+    }
+
+    /**
+     * Pauses or resumes the shared animation, e.g. while the view cannot be
+     * seen. A paused animation continues where it was paused.
+     * 
+     * @param suspended
+     */
+    void setSuspended(boolean suspended) {
+
+        if (suspended)
+            mAnimator.pause();
+        else
+            mAnimator.resume();
+    }
+
+    void setAnimDuration(int durationmillis) {
+        mAnimator.setDuration(durationmillis);
+    }
+
+    void setUnit(String unit) {
+        mUnitChars = unit == null ? new char[0] : unit.toCharArray();
+        ensureTextBuffer();
+        mView.invalidate();
+    }
+
+    void setValueFormatter(ValueFormatter formatter) {
+        mFormatter = formatter;
+        ensureTextBuffer();
+        mView.invalidate();
+    }
+
+    /**
+     * makes sure the text buffer is large enough for the current formatter
+     * and unit
+     */
+    private void ensureTextBuffer() {
+        int length = mFormatter.getMaxLength(mUnitChars.length);
+
+        if (mTextBuffer.length < length)
+            mTextBuffer = new char[length];
+    }
+
+    /**
+     * formats the value with the unit into the text buffer
+     * 
+     * @param value
+     * @return the number of chars written, see getTextBuffer()
+     */
+    int format(float value) {
+        return mFormatter.format(value, mUnitChars, mTextBuffer);
+    }
+
+    char[] getTextBuffer() {
+        return mTextBuffer;
+    }
+
+    void setSelectionListener(GaugeSelectionListener l) {
+        mListener = l;
+    }
+
+    /**
+     * reports the current value of the gauge with the given index as a
+     * selection update
+     * 
+     * @param index
+     */
+    void dispatchSelectionUpdate(int index) {
+
+        if (mListener != null) {
+            Gauge gauge = mGauges.get(index);
+            mListener.onSelectionUpdate(index, gauge.value, gauge.maxValue);
+        }
+    }
+
+    /**
+     * reports the current value of the gauge with the given index as selected
+     * 
+     * @param index
+     */
+    void dispatchValueSelected(int index) {
+
+        if (mListener != null) {
+            Gauge gauge = mGauges.get(index);
+            mListener.onValueSelected(index, gauge.value, gauge.maxValue);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+
+package com.philjay.circledisplay;
+
+/**
+ * listener for callbacks when selecting values of the gauges of a
+ * CircleDisplayGrid or the rings of a CircleDisplayRings ontouch
+ * 
+ * @author Philipp Jahoda
+ */
+public interface GaugeSelectionListener {
+
+    /**
+     * called everytime the user moves the finger on one of the gauges
+     * 
+     * @param index
+     * @param val
+     * @param maxval
+     */
+    public void onSelectionUpdate(int index, float val, float maxval);
+
+    /**
+     * called when the user releases his finger from one of the gauges
+     * 
+     * @param index
+     * @param val
+     * @param maxval
+     */
+    public void onValueSelected(int index, float val, float maxval);
+}
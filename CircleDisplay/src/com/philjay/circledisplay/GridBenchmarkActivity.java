@@ -0,0 +1,216 @@
+
+package com.philjay.circledisplay;
+
+import android.app.Activity;
+import android.graphics.Color;
+import android.os.Bundle;
+import android.os.Handler;
+import android.util.Log;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import java.util.Random;
+
+/**
+ * Benchmark of one CircleDisplayGrid against the same number of separate
+ * CircleDisplays laid out in rows. In both runs all gauges are animated to new
+ * values at a fixed interval, continuing from the value they currently show so
+ * that both runs animate the same sweep, and the frame times are recorded.
+ * Results are shown on screen and logged with the tag "GridBenchmark". Start
+ * it with "adb shell am start -n com.philjay.circledisplay/.GridBenchmarkActivity".
+ * 
+ * @author Philipp Jahoda
+ */
+public class GridBenchmarkActivity extends Activity {
+
+    private static final String LOG_TAG = "GridBenchmark";
+
+    private static final int GAUGES = 64;
+
+    private static final int COLUMNS = 8;
+
+    /** duration of the measured part of each run */
+    private static final int RUN_MILLIS = 5000;
+
+    /** interval in which all gauges get a new value */
+    private static final int UPDATE_MILLIS = 500;
+
+    private static final int[] COLORS = {
+            Color.rgb(192, 255, 140), Color.rgb(255, 247, 140), Color.rgb(255, 208, 140),
+            Color.rgb(140, 234, 255)
+    };
+
+    private static final String[] RUN_NAMES = {
+            "CircleDisplayGrid", "separate CircleDisplays"
+    };
+
+    private final Random mRandom = new Random(42);
+
+    private final Handler mHandler = new Handler();
+
+    private final FrameStats mStats = new FrameStats(2000);
+
+    private FrameLayout mContainer;
+    private TextView mResults;
+
+    /** size of a single gauge in pixels */
+    private int mCellSize;
+
+    /** index into RUN_NAMES of the current run */
+    private int mRun = 0;
+
+    /** the grid of the first run, null during the second */
+    private CircleDisplayGrid mGrid;
+
+    /** the separate views of the second run, null during the first */
+    private CircleDisplay[] mDisplays;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        mCellSize = (int) CircleDisplay.Utils.convertDpToPixel(getResources(), 44f);
+
+        mContainer = new FrameLayout(this);
+
+        mResults = new TextView(this);
+        mResults.setBackgroundColor(Color.argb(200, 255, 255, 255));
+        mResults.setTextColor(Color.BLACK);
+
+        FrameLayout root = new FrameLayout(this);
+        root.addView(mContainer, new FrameLayout.LayoutParams(
+                FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT));
+        root.addView(mResults, new FrameLayout.LayoutParams(
+                FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.WRAP_CONTENT));
+
+        setContentView(root);
+
+        mHandler.postDelayed(mStartRun, 1000);
+    }
+
+    @Override
+    protected void onDestroy() {
+        mHandler.removeCallbacksAndMessages(null);
+        mStats.stop();
+        super.onDestroy();
+    }
+
+    /**
+     * creates the grid with all gauges
+     */
+    private void createGrid() {
+
+        mGrid = new CircleDisplayGrid(this);
+        mGrid.setColumns(COLUMNS);
+        mGrid.setAnimDuration(UPDATE_MILLIS);
+        mGrid.setTextSize(10f);
+
+        for (int i = 0; i < GAUGES; i++)
+            mGrid.addGauge(COLORS[i % COLORS.length]);
+
+        int rows = (GAUGES + COLUMNS - 1) / COLUMNS;
+
+        mContainer.addView(mGrid, new FrameLayout.LayoutParams(COLUMNS * mCellSize, rows
+                * mCellSize));
+    }
+
+    /**
+     * creates one CircleDisplay per gauge, in rows of COLUMNS views
+     */
+    private void createDisplays() {
+
+        LinearLayout rows = new LinearLayout(this);
+        rows.setOrientation(LinearLayout.VERTICAL);
+
+        mDisplays = new CircleDisplay[GAUGES];
+
+        LinearLayout row = null;
+
+        for (int i = 0; i < GAUGES; i++) {
+
+            if (i % COLUMNS == 0) {
+                row = new LinearLayout(this);
+                row.setOrientation(LinearLayout.HORIZONTAL);
+                rows.addView(row, new LinearLayout.LayoutParams(
+                        LinearLayout.LayoutParams.WRAP_CONTENT, mCellSize));
+            }
+
+            CircleDisplay cd = new CircleDisplay(this);
+            cd.setColor(COLORS[i % COLORS.length]);
+            cd.setAnimDuration(UPDATE_MILLIS);
+            cd.setAnimateFromCurrent(true);
+            cd.setTextSize(10f);
+            cd.setTouchEnabled(false);
+
+            row.addView(cd, new LinearLayout.LayoutParams(mCellSize, mCellSize));
+            mDisplays[i] = cd;
+        }
+
+        mContainer.addView(rows, new FrameLayout.LayoutParams(
+                FrameLayout.LayoutParams.WRAP_CONTENT, FrameLayout.LayoutParams.WRAP_CONTENT));
+    }
+
+    /** creates the views of the current run and starts measuring */
+    private final Runnable mStartRun = new Runnable() {
+
+        @Override
+        public void run() {
+
+            mContainer.removeAllViews();
+            mGrid = null;
+            mDisplays = null;
+
+            if (mRun == 0)
+                createGrid();
+            else
+                createDisplays();
+
+            float refreshRate = mContainer.getDisplay() != null ? mContainer.getDisplay()
+                    .getRefreshRate() : 60f;
+
+            mStats.start(refreshRate);
+            mHandler.post(mUpdate);
+            mHandler.postDelayed(mFinishRun, RUN_MILLIS);
+        }
+    };
+
+    /** animates all gauges to new values */
+    private final Runnable mUpdate = new Runnable() {
+
+        @Override
+        public void run() {
+
+            for (int i = 0; i < GAUGES; i++) {
+
+                float value = mRandom.nextFloat() * 100f;
+
+                if (mGrid != null)
+                    mGrid.showValue(i, value, 100f, true);
+                else
+                    mDisplays[i].showValue(value, 100f, true);
+            }
+
+            mHandler.postDelayed(this, UPDATE_MILLIS);
+        }
+    };
+
+    private final Runnable mFinishRun = new Runnable() {
+
+        @Override
+        public void run() {
+
+            mHandler.removeCallbacks(mUpdate);
+            mStats.stop();
+
+            String result = RUN_NAMES[mRun] + " (" + GAUGES + " gauges): " + mStats.summary();
+            Log.i(LOG_TAG, result);
+            mResults.append(result + "\n");
+
+            mRun++;
+
+            if (mRun < RUN_NAMES.length)
+                mHandler.postDelayed(mStartRun, 1000);
+        }
+    };
+}
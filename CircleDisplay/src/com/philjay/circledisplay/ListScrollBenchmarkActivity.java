@@ -0,0 +1,201 @@
+
+package com.philjay.circledisplay;
+
+import android.app.Activity;
+import android.graphics.Color;
+import android.os.Bundle;
+import android.os.Handler;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.BaseAdapter;
+import android.widget.FrameLayout;
+import android.widget.ListView;
+import android.widget.TextView;
+
+import java.util.Random;
+
+/**
+ * Benchmark of a list of CircleDisplays bound with bind(...). For every bind
+ * policy the list is scrolled down and back up, so items that were detached
+ * during the run are rebound, and the frame times are recorded. Detaches
+ * during a run count as recent for BIND_SNAP_IF_RECENT. Results are
+ * shown on screen and logged with the tag "ListScrollBenchmark". Start it
+ * with "adb shell am start -n
+ * com.philjay.circledisplay/.ListScrollBenchmarkActivity".
+ * 
+ * @author Philipp Jahoda
+ */
+public class ListScrollBenchmarkActivity extends Activity {
+
+    private static final String LOG_TAG = "ListScrollBenchmark";
+
+    private static final int ITEMS = 1000;
+
+    /** items scrolled over in each direction */
+    private static final int SCROLL_ITEMS = 60;
+
+    private static final int SCROLL_MILLIS = 3000;
+
+    private static final int[] POLICIES = {
+            CircleDisplay.BIND_ANIMATE_ALWAYS, CircleDisplay.BIND_ANIMATE_ONCE,
+            CircleDisplay.BIND_SNAP_IF_RECENT
+    };
+
+    private static final String[] POLICY_NAMES = {
+            "BIND_ANIMATE_ALWAYS", "BIND_ANIMATE_ONCE", "BIND_SNAP_IF_RECENT"
+    };
+
+    private final float[] mValues = new float[ITEMS];
+
+    private final Handler mHandler = new Handler();
+
+    private final FrameStats mStats = new FrameStats(2000);
+
+    private final GaugeAdapter mAdapter = new GaugeAdapter();
+
+    private ListView mList;
+    private TextView mResults;
+
+    private int mItemHeight;
+
+    /** index into POLICIES of the current run */
+    private int mRun = 0;
+
+    /** bind policy the adapter uses */
+    private int mPolicy = POLICIES[0];
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        Random random = new Random(42);
+
+        for (int i = 0; i < ITEMS; i++)
+            mValues[i] = random.nextFloat() * 100f;
+
+        mItemHeight = (int) CircleDisplay.Utils.convertDpToPixel(getResources(), 96f);
+
+        mList = new ListView(this);
+        mList.setAdapter(mAdapter);
+
+        mResults = new TextView(this);
+        mResults.setBackgroundColor(Color.argb(200, 255, 255, 255));
+        mResults.setTextColor(Color.BLACK);
+
+        FrameLayout root = new FrameLayout(this);
+        root.addView(mList, new FrameLayout.LayoutParams(
+                FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT));
+        root.addView(mResults, new FrameLayout.LayoutParams(
+                FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.WRAP_CONTENT));
+
+        setContentView(root);
+
+        mHandler.postDelayed(mStartRun, 1000);
+    }
+
+    @Override
+    protected void onDestroy() {
+        mHandler.removeCallbacksAndMessages(null);
+        mStats.stop();
+        super.onDestroy();
+    }
+
+    /** resets the list for the policy of the current run */
+    private final Runnable mStartRun = new Runnable() {
+
+        @Override
+        public void run() {
+            mPolicy = POLICIES[mRun];
+            mAdapter.notifyDataSetChanged();
+            mList.setSelection(0);
+            mHandler.postDelayed(mScrollDown, 500);
+        }
+    };
+
+    private final Runnable mScrollDown = new Runnable() {
+
+        @Override
+        public void run() {
+
+            float refreshRate = mList.getDisplay() != null ? mList.getDisplay()
+                    .getRefreshRate() : 60f;
+
+            mStats.start(refreshRate);
+            mList.smoothScrollBy(SCROLL_ITEMS * mItemHeight, SCROLL_MILLIS);
+            mHandler.postDelayed(mScrollUp, SCROLL_MILLIS);
+        }
+    };
+
+    /** scrolls back over the items that were just detached */
+    private final Runnable mScrollUp = new Runnable() {
+
+        @Override
+        public void run() {
+            mList.smoothScrollBy(-SCROLL_ITEMS * mItemHeight, SCROLL_MILLIS);
+            mHandler.postDelayed(mFinishRun, SCROLL_MILLIS + 500);
+        }
+    };
+
+    private final Runnable mFinishRun = new Runnable() {
+
+        @Override
+        public void run() {
+
+            mStats.stop();
+
+            String result = POLICY_NAMES[mRun] + ": " + mStats.summary();
+            Log.i(LOG_TAG, result);
+            mResults.append(result + "\n");
+
+            mRun++;
+
+            if (mRun < POLICIES.length)
+                mHandler.post(mStartRun);
+        }
+    };
+
+    /**
+     * binds one CircleDisplay per item with the policy of the current run
+     */
+    private class GaugeAdapter extends BaseAdapter {
+
+        @Override
+        public int getCount() {
+            return ITEMS;
+        }
+
+        @Override
+        public Object getItem(int position) {
+            return mValues[position];
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return position;
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+
+            CircleDisplay cd = (CircleDisplay) convertView;
+
+            if (cd == null) {
+                cd = new CircleDisplay(ListScrollBenchmarkActivity.this);
+                cd.setLayoutParams(new AbsListView.LayoutParams(
+                        AbsListView.LayoutParams.MATCH_PARENT, mItemHeight));
+                cd.setAnimDuration(600);
+                cd.setRecentDetachWindow(2 * SCROLL_MILLIS);
+                cd.setUnit("%");
+            } else {
+                cd.onRecycled();
+            }
+
+            cd.setBindPolicy(mPolicy);
+            cd.bind(mValues[position], 100f, null);
+
+            return cd;
+        }
+    }
+}
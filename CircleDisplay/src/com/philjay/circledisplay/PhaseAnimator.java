@@ -0,0 +1,312 @@
+
+package com.philjay.circledisplay;
+
+import android.animation.TimeInterpolator;
+import android.view.Choreographer;
+import android.view.animation.AccelerateDecelerateInterpolator;
+
+/**
+ * Animates a phase from 0 to 1 over a given duration. Driven directly by
+ * Choreographer frame callbacks instead of a reflective ObjectAnimator, so
+ * every frame is one interpolation and one listener call without boxing or
+ * allocations. Must be started from a thread that has a Looper, the listener
+ * is called on that thread.<br>
+ * <br>
+ * A running animation can be retargeted: the phase starts over from 0 for
+ * the new target, but the clock keeps running and the speed carries over, so
+ * frequent retargets give a smooth motion instead of restarting the ease
+ * every time.
+ * 
+ * @author Philipp Jahoda
+ */
+public class PhaseAnimator implements Choreographer.FrameCallback {
+
+    /**
+     * listener that receives the interpolated phase every frame
+     */
+    public interface PhaseListener {
+
+        /**
+         * called every frame while the animation runs, the last call is
+         * always made with phase 1
+         * 
+         * @param phase
+         */
+        public void onPhaseUpdate(float phase);
+    }
+
+    /** the listener that receives the phase */
+    private final PhaseListener mListener;
+
+    /** maximum slope of a retargeted curve that does not overshoot */
+    private static final float MAX_RETARGET_SLOPE = 3f;
+
+    /** fraction step used to measure the speed of the curve */
+    private static final float SLOPE_STEP = 1e-3f;
+
+    /** duration of the animation in milliseconds */
+    private long mDuration = 3000;
+
+    /** duration of the current curve, shorter than mDuration after a retarget */
+    private long mSegmentDuration = 3000;
+
+    /**
+     * true if the current curve is the ease-out of a retarget instead of the
+     * interpolator
+     */
+    private boolean mRetargeted = false;
+
+    /** start slope of the retargeted curve, in phase per fraction */
+    private float mRetargetSlope = 0f;
+
+    /** interpolator applied to the linear time fraction */
+    private TimeInterpolator mInterpolator = new AccelerateDecelerateInterpolator();
+
+    /** frame time of the first frame, -1 if the first frame is pending */
+    private long mStartTimeNanos = -1;
+
+    /** true while the animation is running, also while paused */
+    private boolean mRunning = false;
+
+    /** true while paused, no frames are requested then */
+    private boolean mPaused = false;
+
+    /** time that elapsed before the next first frame, kept across pauses */
+    private long mElapsedNanos = 0;
+
+    /** frame time of the last frame */
+    private long mLastFrameNanos = 0;
+
+    /** the choreographer of the thread the animation was started on */
+    private Choreographer mChoreographer;
+
+    public PhaseAnimator(PhaseListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * (Re)starts the animation from phase 0, the first update happens on the
+     * next frame, or on the first frame after resume() if paused.
+     */
+    public void start() {
+
+        if (mRunning && !mPaused)
+            mChoreographer.removeFrameCallback(this);
+
+        // frames are delivered on the thread that (re)started the animation
+        mChoreographer = Choreographer.getInstance();
+
+        mStartTimeNanos = -1;
+        mElapsedNanos = 0;
+        mSegmentDuration = mDuration;
+        mRetargeted = false;
+        mRunning = true;
+
+        if (!mPaused)
+            mChoreographer.postFrameCallback(this);
+    }
+
+    /**
+     * Starts a new curve from phase 0 to 1 for a new target without
+     * restarting the clock. The new curve begins with the current speed of
+     * the animation, scaled by the given factor, and eases out over the time
+     * the animation had left, but at least half the duration. Starts the
+     * animation if it is not running.
+     * 
+     * @param speedScale factor from the old to the new phase speed, the
+     *            distance of the old curve divided by the distance of the new
+     *            one
+     */
+    public void retarget(float speedScale) {
+
+        if (!mRunning || (mStartTimeNanos < 0 && mElapsedNanos == 0)) {
+            start();
+            return;
+        }
+
+        long elapsedMillis = (mStartTimeNanos < 0 ? mElapsedNanos : mLastFrameNanos
+                - mStartTimeNanos) / 1000000L;
+
+        float fraction = mSegmentDuration > 0 ? Math.min(1f, elapsedMillis
+                / (float) mSegmentDuration) : 1f;
+
+        // speed in phase per millisecond, carried over to the new curve
+        float speed = getSpeed(fraction) * speedScale;
+
+        long duration = Math.max(mSegmentDuration - elapsedMillis, mDuration / 2);
+
+        mRetargetSlope = Math.max(0f, Math.min(MAX_RETARGET_SLOPE, speed * duration));
+        mRetargeted = true;
+        mSegmentDuration = duration;
+
+        // the new curve starts at the last frame, or at the next one if none
+        // is pending
+        if (mStartTimeNanos < 0)
+            mElapsedNanos = 0;
+        else
+            mStartTimeNanos = mLastFrameNanos;
+    }
+
+    /**
+     * returns the phase of the current curve at the given time fraction
+     * 
+     * @param fraction
+     * @return
+     */
+    private float getPhase(float fraction) {
+
+        if (!mRetargeted)
+            return mInterpolator.getInterpolation(fraction);
+
+        // cubic that starts with the given slope and eases out at 1, never
+        // overshoots for slopes up to 3
+        float s = fraction;
+        float s2 = s * s;
+        float s3 = s2 * s;
+
+        return mRetargetSlope * (s3 - 2f * s2 + s) + 3f * s2 - 2f * s3;
+    }
+
+    /**
+     * returns the speed of the current curve at the given time fraction in
+     * phase per millisecond
+     * 
+     * @param fraction
+     * @return
+     */
+    private float getSpeed(float fraction) {
+
+        if (fraction >= 1f || mSegmentDuration <= 0)
+            return 0f;
+
+        float from = Math.max(0f, fraction - SLOPE_STEP);
+        float to = Math.min(1f, fraction + SLOPE_STEP);
+
+        return (getPhase(to) - getPhase(from)) / (to - from) / mSegmentDuration;
+    }
+
+    /**
+     * Suspends the animation, no frames are requested until resume() is
+     * called. The elapsed time is kept, so the animation continues where it
+     * was paused. Starting the animation while paused defers it until
+     * resume().
+     */
+    public void pause() {
+
+        if (mPaused)
+            return;
+
+        mPaused = true;
+
+        if (!mRunning)
+            return;
+
+        mChoreographer.removeFrameCallback(this);
+
+        if (mStartTimeNanos >= 0)
+            mElapsedNanos = mLastFrameNanos - mStartTimeNanos;
+
+        mStartTimeNanos = -1;
+    }
+
+    /**
+     * continues a paused animation on the next frame
+     */
+    public void resume() {
+
+        if (!mPaused)
+            return;
+
+        mPaused = false;
+
+        if (mRunning)
+            mChoreographer.postFrameCallback(this);
+    }
+
+    /**
+     * returns true if the animation is paused
+     * 
+     * @return
+     */
+    public boolean isPaused() {
+        return mPaused;
+    }
+
+    /**
+     * stops the animation where it is, no further updates are delivered
+     */
+    public void cancel() {
+
+        if (!mRunning)
+            return;
+
+        mRunning = false;
+
+        if (!mPaused)
+            mChoreographer.removeFrameCallback(this);
+    }
+
+    /**
+     * returns true if the animation is currently running
+     * 
+     * @return
+     */
+    public boolean isRunning() {
+        return mRunning;
+    }
+
+    /**
+     * set the duration of the animation in milliseconds, applies from the
+     * next start or retarget
+     * 
+     * @param durationMillis
+     */
+    public void setDuration(long durationMillis) {
+        mDuration = durationMillis;
+    }
+
+    /**
+     * returns the duration of the animation in milliseconds
+     * 
+     * @return
+     */
+    public long getDuration() {
+        return mDuration;
+    }
+
+    /**
+     * set the interpolator applied to the animation, default
+     * AccelerateDecelerateInterpolator
+     * 
+     * @param interpolator
+     */
+    public void setInterpolator(TimeInterpolator interpolator) {
+        mInterpolator = interpolator;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+
+        if (!mRunning || mPaused)
+            return;
+
+        if (mStartTimeNanos < 0)
+            mStartTimeNanos = frameTimeNanos - mElapsedNanos;
+
+        mLastFrameNanos = frameTimeNanos;
+
+        float fraction = 1f;
+
+        if (mSegmentDuration > 0) {
+            long elapsedMillis = (frameTimeNanos - mStartTimeNanos) / 1000000L;
+            fraction = Math.min(1f, elapsedMillis / (float) mSegmentDuration);
+        }
+
+        if (fraction < 1f)
+            mChoreographer.postFrameCallback(this);
+        else
+            mRunning = false;
+
+        mListener.onPhaseUpdate(fraction < 1f ? getPhase(fraction) : 1f);
+    }
+}
@@ -0,0 +1,151 @@
+
+package com.philjay.circledisplay;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * Ownership bookkeeping and pool behind the CircleSnapshotRenderer. Every
+ * snapshot is held by the cache and by the callers it was handed out to. Only
+ * a snapshot that is neither cached nor held by any caller goes back into the
+ * pool, keyed by its dimensions, and may be drawn over for another snapshot.
+ * Free of Android dependencies. All methods are synchronized on the pool.
+ * 
+ * @author Philipp Jahoda
+ */
+final class SnapshotPool<B> {
+
+    /** owners of a snapshot that has been added and not yet pooled */
+    private static final class Owners {
+
+        /** key of the pool the snapshot goes back into */
+        final Object poolKey;
+
+        /** number of callers that hold the snapshot */
+        int holders = 0;
+
+        /** true while the snapshot is in the cache */
+        boolean cached = true;
+
+        Owners(Object poolKey) {
+            this.poolKey = poolKey;
+        }
+    }
+
+    /** owners of all snapshots in use, by identity */
+    private final IdentityHashMap<B, Owners> mOwners = new IdentityHashMap<B, Owners>();
+
+    /** free snapshots by pool key */
+    private final HashMap<Object, ArrayList<B>> mFree = new HashMap<Object, ArrayList<B>>();
+
+    /** maximum number of free snapshots per pool key */
+    private final int mMaxFreePerKey;
+
+    /**
+     * @param maxFreePerKey maximum number of free snapshots kept per pool key,
+     *            others are left to the garbage collector
+     */
+    SnapshotPool(int maxFreePerKey) {
+        mMaxFreePerKey = maxFreePerKey;
+    }
+
+    /**
+     * registers a snapshot that has just been put into the cache
+     * 
+     * @param snapshot
+     * @param poolKey key of the pool the snapshot goes back into, e.g. its
+     *            dimensions
+     */
+    synchronized void added(B snapshot, Object poolKey) {
+        mOwners.put(snapshot, new Owners(poolKey));
+    }
+
+    /**
+     * records that the snapshot has been handed out to one more caller
+     * 
+     * @param snapshot
+     */
+    synchronized void acquire(B snapshot) {
+
+        Owners owners = mOwners.get(snapshot);
+
+        if (owners != null)
+            owners.holders++;
+    }
+
+    /**
+     * records that a caller no longer uses the snapshot
+     * 
+     * @param snapshot
+     * @return false if the snapshot was not held by any caller
+     */
+    synchronized boolean release(B snapshot) {
+
+        Owners owners = mOwners.get(snapshot);
+
+        if (owners == null || owners.holders == 0)
+            return false;
+
+        owners.holders--;
+        recycleIfUnowned(snapshot, owners);
+        return true;
+    }
+
+    /**
+     * records that the snapshot has been removed from the cache
+     * 
+     * @param snapshot
+     */
+    synchronized void evicted(B snapshot) {
+
+        Owners owners = mOwners.get(snapshot);
+
+        if (owners == null)
+            return;
+
+        owners.cached = false;
+        recycleIfUnowned(snapshot, owners);
+    }
+
+    /**
+     * takes a free snapshot with the given pool key out of the pool
+     * 
+     * @param poolKey
+     * @return null if there is none
+     */
+    synchronized B take(Object poolKey) {
+
+        ArrayList<B> free = mFree.get(poolKey);
+
+        if (free == null || free.isEmpty())
+            return null;
+
+        return free.remove(free.size() - 1);
+    }
+
+    /**
+     * drops all free snapshots, snapshots in use are still tracked
+     */
+    synchronized void clear() {
+        mFree.clear();
+    }
+
+    private void recycleIfUnowned(B snapshot, Owners owners) {
+
+        if (owners.cached || owners.holders > 0)
+            return;
+
+        mOwners.remove(snapshot);
+
+        ArrayList<B> free = mFree.get(owners.poolKey);
+
+        if (free == null) {
+            free = new ArrayList<B>(mMaxFreePerKey);
+            mFree.put(owners.poolKey, free);
+        }
+
+        if (free.size() < mMaxFreePerKey)
+            free.add(snapshot);
+    }
+}
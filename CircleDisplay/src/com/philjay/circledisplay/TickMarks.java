@@ -0,0 +1,166 @@
+
+package com.philjay.circledisplay;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * Tick marks around the value bar of the CircleDisplay and optional scale
+ * labels at the major ticks. The endpoints of all ticks are computed once
+ * into a single array and drawn with one drawLines(...) call, the labels are
+ * formatted and positioned once as well. Layout only happens when the
+ * geometry, the scale or the tick settings change.
+ * 
+ * @author Philipp Jahoda
+ */
+final class TickMarks {
+
+    /** more ticks than this are not drawn, only the major ones */
+    private static final int MAX_TICKS = 720;
+
+    /** the labels are formatted without unit */
+    private static final char[] NO_UNIT = new char[0];
+
+    /** tolerance for the tick at the maximum value */
+    private static final float EPSILON = 1e-3f;
+
+    /** endpoints of all ticks, four floats per tick */
+    private float[] mLines = new float[0];
+
+    /** number of floats of mLines in use */
+    private int mLineFloats = 0;
+
+    /** texts of the labels */
+    private String[] mLabels = new String[0];
+
+    /** positions of the labels, x and baseline per label */
+    private float[] mLabelPositions = new float[0];
+
+    /** number of labels in use */
+    private int mLabelCount = 0;
+
+    /**
+     * Computes the endpoints of all ticks and lays out the labels.
+     * 
+     * @param g geometry of the view
+     * @param startAngle angle where the scale starts
+     * @param maxValue maximum value of the scale
+     * @param interval value between two ticks
+     * @param majorEvery every how many ticks a major tick is drawn, 0 for
+     *            none
+     * @param minorLength length of the minor ticks in pixels
+     * @param majorLength length of the major ticks in pixels
+     * @param formatter formatter of the labels, null for no labels
+     * @param buffer buffer for formatting the labels
+     * @param labelPaint paint the labels are drawn with, may be null without
+     *            labels
+     */
+    void layout(CircleGeometry g, float startAngle, float maxValue, float interval,
+            int majorEvery, float minorLength, float majorLength, ValueFormatter formatter,
+            char[] buffer, Paint labelPaint) {
+
+        mLineFloats = 0;
+        mLabelCount = 0;
+
+        if (interval <= 0f || maxValue <= 0f)
+            return;
+
+        // the tick at the maximum would lie on the one at 0, computed in
+        // double so huge scales do not overflow
+        double count = Math.ceil((double) maxValue / interval - EPSILON);
+        double majorCount = majorEvery > 0 ? Math.ceil(count / majorEvery) : 0;
+
+        boolean majorsOnly = count > MAX_TICKS;
+
+        if (majorsOnly && majorCount > MAX_TICKS)
+            return;
+
+        int ticks = (int) (majorsOnly ? majorCount : count);
+
+        if (ticks <= 0)
+            return;
+
+        if (mLines.length < ticks * 4)
+            mLines = new float[ticks * 4];
+
+        boolean labels = formatter != null && majorCount > 0;
+
+        if (labels && mLabels.length < (int) majorCount) {
+            mLabels = new String[(int) majorCount];
+            mLabelPositions = new float[(int) majorCount * 2];
+        }
+
+        float labelHeight = 0f;
+        float labelPadding = 0f;
+        float labelCenterOffset = 0f;
+
+        if (labels) {
+            labelHeight = labelPaint.descent() - labelPaint.ascent();
+            labelPadding = labelHeight / 4f;
+            labelCenterOffset = (labelPaint.ascent() + labelPaint.descent()) / 2f;
+        }
+
+        // with majors only, step over the minor ticks instead of skipping them
+        int step = majorsOnly ? majorEvery : 1;
+
+        for (int t = 0; t < ticks; t++) {
+
+            int i = t * step;
+            boolean major = majorEvery > 0 && i % majorEvery == 0;
+
+            float value = i * interval;
+            double angle = Math.toRadians(startAngle
+                    + CircleMath.angleForValue(value, maxValue));
+
+            float cos = (float) Math.cos(angle);
+            float sin = (float) Math.sin(angle);
+
+            float outer = g.radius;
+            float inner = outer - (major ? majorLength : minorLength);
+
+            mLines[mLineFloats++] = g.centerX + cos * outer;
+            mLines[mLineFloats++] = g.centerY + sin * outer;
+            mLines[mLineFloats++] = g.centerX + cos * inner;
+            mLines[mLineFloats++] = g.centerY + sin * inner;
+
+            if (labels && major) {
+
+                int length = formatter.format(value, NO_UNIT, buffer);
+                String label = new String(buffer, 0, length);
+
+                // keep the whole label inside the inner circle
+                float halfExtent = Math.max(labelPaint.measureText(label), labelHeight) / 2f;
+                float r = g.innerRadius - labelPadding - halfExtent;
+
+                mLabels[mLabelCount] = label;
+                mLabelPositions[mLabelCount * 2] = g.centerX + cos * r;
+                mLabelPositions[mLabelCount * 2 + 1] = g.centerY + sin * r - labelCenterOffset;
+                mLabelCount++;
+            }
+        }
+    }
+
+    /**
+     * draws all ticks with a single drawLines(...) call
+     * 
+     * @param c
+     * @param p
+     */
+    void drawTicks(Canvas c, Paint p) {
+
+        if (mLineFloats > 0)
+            c.drawLines(mLines, 0, mLineFloats, p);
+    }
+
+    /**
+     * draws the labels at the positions computed in layout(...)
+     * 
+     * @param c
+     * @param p
+     */
+    void drawLabels(Canvas c, Paint p) {
+
+        for (int i = 0; i < mLabelCount; i++)
+            c.drawText(mLabels[i], mLabelPositions[i * 2], mLabelPositions[i * 2 + 1], p);
+    }
+}
@@ -0,0 +1,171 @@
+
+package com.philjay.circledisplay;
+
+import android.view.Choreographer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Thread-safe feed for streaming values into a CircleDisplay. Producers on
+ * any thread call publish(...), which only writes into lock-free slots and
+ * never touches the view. The consumer is called at most once per frame on
+ * the thread the feed was bound on, with the values published since the last
+ * frame reduced according to the smoothing policy. Publishing does not
+ * allocate.
+ * 
+ * @author Philipp Jahoda
+ */
+public class ValueFeed implements Choreographer.FrameCallback {
+
+    /** deliver the most recently published value */
+    public static final int SMOOTHING_LATEST = FeedSlots.LATEST;
+
+    /** deliver the average of the values published during the frame */
+    public static final int SMOOTHING_AVERAGE = FeedSlots.AVERAGE;
+
+    /** deliver the minimum of the values published during the frame */
+    public static final int SMOOTHING_MIN = FeedSlots.MIN;
+
+    /** deliver the maximum of the values published during the frame */
+    public static final int SMOOTHING_MAX = FeedSlots.MAX;
+
+    /**
+     * consumer of the values of the feed, called on the thread the feed was
+     * bound on
+     */
+    public interface Consumer {
+
+        /**
+         * called at most once per frame with the reduced value and the most
+         * recently published total
+         * 
+         * @param value
+         * @param total
+         */
+        public void onFeedValue(float value, float total);
+    }
+
+    /** values published since the last frame */
+    private final FeedSlots mSlots;
+
+    /** value and total taken from the slots, only accessed on the bound thread */
+    private final float[] mTaken = new float[2];
+
+    /** true while a frame callback is pending */
+    private final AtomicBoolean mScheduled = new AtomicBoolean(false);
+
+    /** the consumer, only accessed on the bound thread */
+    private Consumer mConsumer;
+
+    /** choreographer of the bound thread, written before producers start */
+    private volatile Choreographer mChoreographer;
+
+    /** true while the consumer is bound and not paused */
+    private volatile boolean mActive = false;
+
+    /**
+     * creates a feed that delivers the most recently published value
+     */
+    public ValueFeed() {
+        this(SMOOTHING_LATEST);
+    }
+
+    /**
+     * creates a feed with the given smoothing policy, e.g.
+     * ValueFeed.SMOOTHING_AVERAGE
+     * 
+     * @param smoothing
+     */
+    public ValueFeed(int smoothing) {
+        mSlots = new FeedSlots(smoothing);
+    }
+
+    /**
+     * Publishes a new value, can be called from any thread at any rate. The
+     * bound consumer sees it on the next frame.
+     * 
+     * @param value
+     * @param total the maximum value, see CircleDisplay.showValue(...)
+     */
+    public void publish(float value, float total) {
+
+        mSlots.publish(value, total);
+
+        if (mActive && mScheduled.compareAndSet(false, true))
+            mChoreographer.postFrameCallback(this);
+    }
+
+    /**
+     * Binds the consumer, must be called on a thread with a Looper, usually
+     * the main thread. Only one consumer can be bound at a time.
+     * 
+     * @param consumer
+     */
+    public void bind(Consumer consumer) {
+        mChoreographer = Choreographer.getInstance();
+        mConsumer = consumer;
+        resume();
+    }
+
+    /**
+     * unbinds the consumer, values published afterwards are kept until a
+     * consumer is bound again
+     */
+    public void unbind() {
+        pause();
+        mConsumer = null;
+    }
+
+    /**
+     * Stops delivering values to the bound consumer without unbinding it.
+     * Publishing continues to work, but schedules no frames.
+     */
+    public void pause() {
+
+        mActive = false;
+
+        if (mChoreographer != null)
+            mChoreographer.removeFrameCallback(this);
+
+        mScheduled.set(false);
+    }
+
+    /**
+     * resumes delivering values after pause(), values published in the
+     * meantime are delivered on the next frame
+     */
+    public void resume() {
+
+        if (mConsumer == null)
+            return;
+
+        mActive = true;
+
+        // nothing to deliver until something is published
+        if (mSlots.hasPublished() && mScheduled.compareAndSet(false, true))
+            mChoreographer.postFrameCallback(this);
+    }
+
+    /**
+     * returns the smoothing policy of the feed
+     * 
+     * @return
+     */
+    public int getSmoothing() {
+        return mSlots.getSmoothing();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+
+        // values published from now on schedule the next frame
+        mScheduled.set(false);
+
+        if (!mActive || mConsumer == null)
+            return;
+
+        // only deliver if something was published since the last frame
+        if (mSlots.take(mTaken))
+            mConsumer.onFeedValue(mTaken[0], mTaken[1]);
+    }
+}
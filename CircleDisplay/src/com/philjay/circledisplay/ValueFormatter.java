@@ -0,0 +1,32 @@
+
+package com.philjay.circledisplay;
+
+/**
+ * Interface for formatting the value that is drawn in the center of the
+ * CircleDisplay. Implementations write into a buffer that is reused every
+ * frame and must not allocate while formatting.
+ * 
+ * @author Philipp Jahoda
+ */
+public interface ValueFormatter {
+
+    /**
+     * Writes the given value followed by the given unit into the buffer,
+     * starting at index 0, and returns the number of chars written.
+     * 
+     * @param value the value to format
+     * @param unit the unit to append, may be empty
+     * @param buffer the buffer to write into, at least getMaxLength(...) long
+     * @return
+     */
+    public int format(float value, char[] unit, char[] buffer);
+
+    /**
+     * returns the number of chars format(...) writes at most for a unit of
+     * the given length
+     * 
+     * @param unitLength
+     * @return
+     */
+    public int getMaxLength(int unitLength);
+}
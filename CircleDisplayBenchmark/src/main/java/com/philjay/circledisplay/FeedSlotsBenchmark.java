@@ -0,0 +1,69 @@
+
+package com.philjay.circledisplay;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the throughput of the slots behind the ValueFeed with seven
+ * producers publishing and one consumer taking, like sensor threads feeding
+ * one gauge. Lives in the library package because FeedSlots is
+ * package-private.
+ * 
+ * @author Philipp Jahoda
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedSlotsBenchmark {
+
+    @Param({ "0", "1", "3" })
+    public int smoothing;
+
+    private FeedSlots mSlots;
+
+    @State(Scope.Thread)
+    public static class Producer {
+        float value;
+    }
+
+    @State(Scope.Thread)
+    public static class Consumer {
+        final float[] taken = new float[2];
+    }
+
+    @Setup
+    public void setUp() {
+        mSlots = new FeedSlots(smoothing);
+    }
+
+    @Benchmark
+    @Group("feed")
+    @GroupThreads(7)
+    public void publish(Producer p) {
+        mSlots.publish(p.value++, 100f);
+    }
+
+    @Benchmark
+    @Group("feed")
+    @GroupThreads(1)
+    public boolean take(Consumer c) {
+        return mSlots.take(c.taken);
+    }
+}
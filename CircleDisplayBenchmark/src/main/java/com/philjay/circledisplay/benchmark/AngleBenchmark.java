@@ -0,0 +1,106 @@
+
+package com.philjay.circledisplay.benchmark;
+
+import com.philjay.circledisplay.CircleGeometry;
+import com.philjay.circledisplay.CircleMath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the angle of a touch relative to the center: the polynomial
+ * atan2 of CircleMath against Math.atan2 and against the acos/sqrt code the
+ * CircleDisplay used before.
+ * 
+ * @author Philipp Jahoda
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AngleBenchmark {
+
+    /** number of precomputed touches, a power of two */
+    private static final int TOUCHES = 1024;
+
+    private final CircleGeometry mGeometry = new CircleGeometry(1080, 1080, 50f, 10f);
+
+    private final float[] mX = new float[TOUCHES];
+    private final float[] mY = new float[TOUCHES];
+
+    private int mIndex = 0;
+
+    @Setup
+    public void setUp() {
+
+        Random random = new Random(42);
+
+        for (int i = 0; i < TOUCHES; i++) {
+            mX[i] = random.nextFloat() * 1080f;
+            mY[i] = random.nextFloat() * 1080f;
+        }
+    }
+
+    private int next() {
+        return mIndex = (mIndex + 1) & (TOUCHES - 1);
+    }
+
+    @Benchmark
+    public float circleMath() {
+        int i = next();
+        return CircleMath.angleForPoint(mGeometry, mX[i], mY[i]);
+    }
+
+    @Benchmark
+    public float mathAtan2() {
+
+        int i = next();
+
+        float angle = (float) Math.toDegrees(Math.atan2(mX[i] - mGeometry.centerX,
+                mGeometry.centerY - mY[i]));
+
+        return angle < 0f ? angle + 360f : angle;
+    }
+
+    @Benchmark
+    public float legacyAcos() {
+        int i = next();
+        return legacyAngleForPoint(mGeometry.centerX, mGeometry.centerY, mX[i], mY[i]);
+    }
+
+    /**
+     * CircleDisplay.getAngleForPoint(...) before it moved to CircleMath
+     */
+    static float legacyAngleForPoint(float cx, float cy, float x, float y) {
+
+        double tx = x - cx, ty = y - cy;
+        double length = Math.sqrt(tx * tx + ty * ty);
+        double r = Math.acos(ty / length);
+
+        float angle = (float) Math.toDegrees(r);
+
+        if (x > cx)
+            angle = 360f - angle;
+
+        angle = angle + 180;
+
+        // neutralize overflow
+        if (angle > 360f)
+            angle = angle - 360f;
+
+        return angle;
+    }
+}
@@ -0,0 +1,106 @@
+
+package com.philjay.circledisplay.benchmark;
+
+import com.philjay.circledisplay.CircleGeometry;
+import com.philjay.circledisplay.CircleMath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the per-touch math of the CircleDisplay: converting a touch into
+ * a value, snapping it to the step size, and converting between angles and
+ * values. The touches are spread over the value bar of a 1080px gauge.
+ * 
+ * @author Philipp Jahoda
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CircleMathBenchmark {
+
+    /** number of precomputed touches, a power of two */
+    private static final int TOUCHES = 1024;
+
+    private static final float MAX_VALUE = 100f;
+    private static final float STEP_SIZE = 0.5f;
+
+    private final CircleGeometry mGeometry = new CircleGeometry(1080, 1080, 50f, 10f);
+
+    private final float[] mX = new float[TOUCHES];
+    private final float[] mY = new float[TOUCHES];
+    private final float[] mValues = new float[TOUCHES];
+    private final float[] mAngles = new float[TOUCHES];
+
+    private int mIndex = 0;
+
+    @Setup
+    public void setUp() {
+
+        Random random = new Random(42);
+
+        for (int i = 0; i < TOUCHES; i++) {
+
+            double angle = random.nextDouble() * 2.0 * Math.PI;
+            double r = mGeometry.innerRadius + random.nextDouble()
+                    * (mGeometry.radius - mGeometry.innerRadius);
+
+            mX[i] = mGeometry.centerX + (float) (Math.cos(angle) * r);
+            mY[i] = mGeometry.centerY + (float) (Math.sin(angle) * r);
+            mValues[i] = random.nextFloat() * MAX_VALUE;
+            mAngles[i] = random.nextFloat() * 360f;
+        }
+    }
+
+    private int next() {
+        return mIndex = (mIndex + 1) & (TOUCHES - 1);
+    }
+
+    /** a touch on the bar turned into the selected value, as on ACTION_MOVE */
+    @Benchmark
+    public float touchToValue() {
+        int i = next();
+        return CircleMath.valueForPoint(mGeometry, mX[i], mY[i], MAX_VALUE, STEP_SIZE);
+    }
+
+    @Benchmark
+    public boolean hitTest() {
+        int i = next();
+        return CircleMath.isInRing(mGeometry, mX[i], mY[i]);
+    }
+
+    @Benchmark
+    public float angleForPoint() {
+        int i = next();
+        return CircleMath.angleForPoint(mGeometry, mX[i], mY[i]);
+    }
+
+    @Benchmark
+    public float snapToStep() {
+        return CircleMath.snapToStep(mValues[next()], STEP_SIZE);
+    }
+
+    @Benchmark
+    public float angleForValue() {
+        return CircleMath.angleForValue(mValues[next()], MAX_VALUE);
+    }
+
+    @Benchmark
+    public float valueForAngle() {
+        return CircleMath.valueForAngle(mAngles[next()], MAX_VALUE);
+    }
+}
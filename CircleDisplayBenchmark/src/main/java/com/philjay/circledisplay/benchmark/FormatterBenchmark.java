@@ -0,0 +1,92 @@
+
+package com.philjay.circledisplay.benchmark;
+
+import com.philjay.circledisplay.FixedPointValueFormatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks formatting the center text of a gauge, value and unit, as it
+ * happens on every frame of an animation. The baseline is the DecimalFormat
+ * and string concatenation the CircleDisplay used before.
+ * 
+ * @author Philipp Jahoda
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatterBenchmark {
+
+    /** number of precomputed values, a power of two */
+    private static final int VALUES = 1024;
+
+    @Param({ "0", "1", "3" })
+    public int digits;
+
+    private final float[] mValues = new float[VALUES];
+    private final char[] mUnit = "km/h".toCharArray();
+
+    private FixedPointValueFormatter mFormatter;
+    private char[] mBuffer;
+
+    private DecimalFormat mDecimalFormat;
+    private String mUnitString;
+
+    private int mIndex = 0;
+
+    @Setup
+    public void setUp() {
+
+        Random random = new Random(42);
+
+        for (int i = 0; i < VALUES; i++)
+            mValues[i] = random.nextFloat() * 100000f;
+
+        mFormatter = new FixedPointValueFormatter(digits, new DecimalFormatSymbols(Locale.US));
+        mBuffer = new char[mFormatter.getMaxLength(mUnit.length)];
+
+        StringBuilder pattern = new StringBuilder("###,###,###,##0");
+
+        if (digits > 0)
+            pattern.append('.');
+        for (int i = 0; i < digits; i++)
+            pattern.append('0');
+
+        mDecimalFormat = new DecimalFormat(pattern.toString(), new DecimalFormatSymbols(
+                Locale.US));
+        mUnitString = new String(mUnit);
+    }
+
+    private float next() {
+        return mValues[mIndex = (mIndex + 1) & (VALUES - 1)];
+    }
+
+    @Benchmark
+    public int fixedPoint() {
+        return mFormatter.format(next(), mUnit, mBuffer);
+    }
+
+    @Benchmark
+    public String decimalFormat() {
+        return mDecimalFormat.format(next()) + " " + mUnitString;
+    }
+}
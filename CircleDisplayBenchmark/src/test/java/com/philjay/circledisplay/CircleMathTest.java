@@ -0,0 +1,174 @@
+
+package com.philjay.circledisplay;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class CircleMathTest {
+
+    private static final float DELTA = 1e-3f;
+
+    /** documented maximum error of atan2Degrees(...), 1.2e-5 radians */
+    private static final double ATAN_MAX_ERROR_DEGREES = Math.toDegrees(1.2e-5);
+
+    /** 200px gauge, center at 100/100, radius 100, inner radius 50 */
+    private final CircleGeometry mGeometry = new CircleGeometry(200, 200, 50f, 0f);
+
+    @Test
+    public void snapToStepRoundsToTheClosestStep() {
+        assertEquals(7f, CircleMath.snapToStep(7.4f, 1f), DELTA);
+        assertEquals(8f, CircleMath.snapToStep(7.6f, 1f), DELTA);
+        assertEquals(10f, CircleMath.snapToStep(12f, 5f), DELTA);
+        assertEquals(15f, CircleMath.snapToStep(13f, 5f), DELTA);
+    }
+
+    @Test
+    public void snapToStepRoundsHalfwayDown() {
+        assertEquals(7f, CircleMath.snapToStep(7.5f, 1f), DELTA);
+    }
+
+    @Test
+    public void snapToStepWithoutStepSizeKeepsTheValue() {
+        assertEquals(7.37f, CircleMath.snapToStep(7.37f, 0f), 0f);
+    }
+
+    @Test
+    public void angleForOffsetStartsNorthAndGrowsClockwise() {
+        assertEquals(0f, CircleMath.angleForOffset(0f, -1f), DELTA);
+        assertEquals(45f, CircleMath.angleForOffset(1f, -1f), DELTA);
+        assertEquals(90f, CircleMath.angleForOffset(1f, 0f), DELTA);
+        assertEquals(180f, CircleMath.angleForOffset(0f, 1f), DELTA);
+        assertEquals(270f, CircleMath.angleForOffset(-1f, 0f), DELTA);
+    }
+
+    @Test
+    public void angleForOffsetStaysBelow360() {
+
+        float angle = CircleMath.angleForOffset(-1e-7f, -1f);
+
+        assertTrue(angle >= 0f && angle < 360f);
+    }
+
+    @Test
+    public void angleDeltaTakesTheShortestWay() {
+        assertEquals(20f, CircleMath.angleDelta(350f, 10f), DELTA);
+        assertEquals(-20f, CircleMath.angleDelta(10f, 350f), DELTA);
+        assertEquals(-180f, CircleMath.angleDelta(0f, 180f), DELTA);
+        assertEquals(0f, CircleMath.angleDelta(90f, 90f), DELTA);
+    }
+
+    @Test
+    public void anglesAndValuesConvertBothWays() {
+        assertEquals(90f, CircleMath.angleForValue(25f, 100f), DELTA);
+        assertEquals(25f, CircleMath.valueForAngle(90f, 100f), DELTA);
+    }
+
+    @Test
+    public void isInRingIncludesTheInnerAndExcludesTheOuterRadius() {
+        assertTrue(CircleMath.isInRing(mGeometry, 175f, 100f));
+        assertTrue(CircleMath.isInRing(mGeometry, 150f, 100f));
+        assertFalse(CircleMath.isInRing(mGeometry, 200f, 100f));
+        assertFalse(CircleMath.isInRing(mGeometry, 125f, 100f));
+    }
+
+    @Test
+    public void isInRingWorksOnSquaredRadii() {
+        assertTrue(CircleMath.isInRing(25f, 25f, 100f));
+        assertTrue(CircleMath.isInRing(99f, 25f, 100f));
+        assertFalse(CircleMath.isInRing(100f, 25f, 100f));
+        assertFalse(CircleMath.isInRing(24f, 25f, 100f));
+    }
+
+    @Test
+    public void valueForPointSnapsTheTouchedValue() {
+
+        // east of the center is a quarter of the way round
+        assertEquals(25f, CircleMath.valueForPoint(mGeometry, 175f, 100f, 100f, 1f), DELTA);
+
+        // slightly past south, snapped back to half the maximum
+        assertEquals(50f, CircleMath.valueForPoint(mGeometry, 99f, 175f, 100f, 5f), DELTA);
+    }
+
+    @Test
+    public void sweepBoundsCoverTheSweptQuarter() {
+
+        float[] out = new float[4];
+
+        // 270° is north in canvas angles, the first quarter ends east
+        CircleMath.sweepBounds(mGeometry, 270f, 0f, 90f, out);
+
+        assertArrayEquals(new float[] {
+                100f, 0f, 200f, 100f
+        }, out, DELTA);
+    }
+
+    @Test
+    public void sweepBoundsOfAFullCircleAreTheBox() {
+
+        float[] out = new float[4];
+
+        CircleMath.sweepBounds(mGeometry, 270f, 0f, 360f, out);
+
+        assertArrayEquals(new float[] {
+                0f, 0f, 200f, 200f
+        }, out, DELTA);
+    }
+
+    @Test
+    public void atan2DegreesStaysWithinItsErrorBound() {
+
+        Random random = new Random(42);
+        double maxError = 0.0;
+
+        for (int i = 0; i < 2000000; i++) {
+
+            float x = (random.nextFloat() * 2f - 1f) * 1000f;
+            float y = (random.nextFloat() * 2f - 1f) * 1000f;
+
+            maxError = Math.max(maxError, atan2Error(y, x));
+        }
+
+        assertTrue("max error " + maxError, maxError <= ATAN_MAX_ERROR_DEGREES);
+    }
+
+    @Test
+    public void atan2DegreesIsAccurateAtTheOctantBoundaries() {
+
+        float[] offsets = {
+                1f, 1e-3f, 1e-6f, 0f
+        };
+
+        for (float dx : offsets) {
+            for (float dy : offsets) {
+
+                float[][] points = {
+                        { 1f, dy }, { dx, 1f }, { -1f, dy }, { dx, -1f }, { 1f, 1f + dy },
+                        { -1f - dx, 1f }, { -1f, -1f + dy }, { 1f + dx, -1f }
+                };
+
+                for (float[] p : points)
+                    assertTrue(atan2Error(p[1], p[0]) <= ATAN_MAX_ERROR_DEGREES);
+            }
+        }
+    }
+
+    @Test
+    public void atan2DegreesOfTheOriginIsZero() {
+        assertEquals(0f, CircleMath.atan2Degrees(0f, 0f), 0f);
+    }
+
+    /** absolute error against Math.atan2, across the -180/180 seam */
+    private static double atan2Error(float y, float x) {
+
+        double error = Math.abs(CircleMath.atan2Degrees(y, x)
+                - Math.toDegrees(Math.atan2(y, x)));
+
+        return error > 180.0 ? 360.0 - error : error;
+    }
+}
@@ -0,0 +1,249 @@
+
+package com.philjay.circledisplay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class FeedSlotsTest {
+
+    private static final int PRODUCERS = 8;
+    private static final int PUBLISHES_PER_PRODUCER = 500000;
+
+    /** largest value published by runProducers(...) */
+    private static final float MAX_PUBLISHED = PRODUCERS * PUBLISHES_PER_PRODUCER - 1;
+
+    /** indices into the result of runProducers(...) */
+    private static final int LAST_VALUE = 0;
+    private static final int LAST_TOTAL = 1;
+    private static final int MIN_TAKEN = 2;
+    private static final int MAX_TAKEN = 3;
+
+    @Test
+    public void takesNothingBeforeTheFirstPublish() {
+
+        FeedSlots slots = new FeedSlots(FeedSlots.LATEST);
+        float[] out = {
+                -1f, -1f
+        };
+
+        assertFalse(slots.hasPublished());
+        assertFalse(slots.take(out));
+        assertEquals(-1f, out[0], 0f);
+    }
+
+    @Test
+    public void takesEachPublishOnce() {
+
+        FeedSlots slots = new FeedSlots(FeedSlots.LATEST);
+        float[] out = new float[2];
+
+        slots.publish(3f, 10f);
+
+        assertTrue(slots.take(out));
+        assertEquals(3f, out[0], 0f);
+        assertEquals(10f, out[1], 0f);
+        assertFalse(slots.take(out));
+    }
+
+    @Test
+    public void reducesTheValuesPublishedSinceTheLastTake() {
+
+        float[] values = {
+                4f, 1f, 7f, 4f
+        };
+        float[] out = new float[2];
+
+        FeedSlots latest = new FeedSlots(FeedSlots.LATEST);
+        FeedSlots average = new FeedSlots(FeedSlots.AVERAGE);
+        FeedSlots min = new FeedSlots(FeedSlots.MIN);
+        FeedSlots max = new FeedSlots(FeedSlots.MAX);
+
+        for (float value : values) {
+            latest.publish(value, 10f);
+            average.publish(value, 10f);
+            min.publish(value, 10f);
+            max.publish(value, 10f);
+        }
+
+        latest.take(out);
+        assertEquals(4f, out[0], 0f);
+        average.take(out);
+        assertEquals(4f, out[0], 0f);
+        min.take(out);
+        assertEquals(1f, out[0], 0f);
+        max.take(out);
+        assertEquals(7f, out[0], 0f);
+
+        // the next take only sees what was published after this one
+        max.publish(2f, 10f);
+        max.take(out);
+        assertEquals(2f, out[0], 0f);
+    }
+
+    @Test(timeout = 60000)
+    public void manyProducersLatest() throws InterruptedException {
+
+        float[] result = runProducers(FeedSlots.LATEST);
+
+        // the last value written by any producer is its final one, with its
+        // own total
+        assertEquals(PUBLISHES_PER_PRODUCER - 1, result[LAST_VALUE] % PUBLISHES_PER_PRODUCER,
+                0f);
+        assertEquals((int) (result[LAST_VALUE] / PUBLISHES_PER_PRODUCER), result[LAST_TOTAL],
+                0f);
+    }
+
+    @Test(timeout = 60000)
+    public void manyProducersAverage() throws InterruptedException {
+
+        float[] result = runProducers(FeedSlots.AVERAGE);
+
+        // an average never leaves the range of what was published
+        assertTrue(result[MIN_TAKEN] >= 0f);
+        assertTrue(result[MAX_TAKEN] <= MAX_PUBLISHED);
+    }
+
+    @Test(timeout = 60000)
+    public void manyProducersMin() throws InterruptedException {
+
+        // every value is in exactly one take, so the smallest one is seen
+        assertEquals(0f, runProducers(FeedSlots.MIN)[MIN_TAKEN], 0f);
+    }
+
+    @Test(timeout = 60000)
+    public void manyProducersMax() throws InterruptedException {
+
+        // every value is in exactly one take, so the largest one is seen
+        assertEquals(MAX_PUBLISHED, runProducers(FeedSlots.MAX)[MAX_TAKEN], 0f);
+    }
+
+    /**
+     * Lets PRODUCERS threads publish as fast as they can while one consumer
+     * takes in a loop and checks every taken value. Producer p publishes p *
+     * PUBLISHES_PER_PRODUCER + i with the total p, so with the latest value a
+     * value and total that do not belong together show up, and so do values
+     * of one producer that go backwards.
+     * 
+     * @param smoothing
+     * @return the value and total of the consumer's final take, which happens
+     *         after all producers are done, and the smallest and largest
+     *         value taken, see LAST_VALUE, LAST_TOTAL, MIN_TAKEN and MAX_TAKEN
+     */
+    private static float[] runProducers(final int smoothing) throws InterruptedException {
+
+        final FeedSlots slots = new FeedSlots(smoothing);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean done = new AtomicBoolean(false);
+
+        Thread[] producers = new Thread[PRODUCERS];
+
+        for (int p = 0; p < PRODUCERS; p++) {
+
+            final int producer = p;
+
+            producers[p] = new Thread() {
+
+                @Override
+                public void run() {
+
+                    awaitQuietly(start);
+
+                    float base = producer * PUBLISHES_PER_PRODUCER;
+
+                    for (int i = 0; i < PUBLISHES_PER_PRODUCER; i++)
+                        slots.publish(base + i, producer);
+                }
+            };
+            producers[p].start();
+        }
+
+        final float[] result = {
+                0f, 0f, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY
+        };
+        final int[] takes = new int[1];
+        final String[] failure = new String[1];
+
+        Thread consumer = new Thread() {
+
+            @Override
+            public void run() {
+
+                float[] out = new float[2];
+
+                // latest value taken of each producer
+                float[] latest = new float[PRODUCERS];
+                Arrays.fill(latest, -1f);
+
+                awaitQuietly(start);
+
+                while (true) {
+
+                    // read before taking, so the final take follows all publishes
+                    boolean finished = done.get();
+
+                    if (slots.take(out)) {
+
+                        takes[0]++;
+                        result[LAST_VALUE] = out[0];
+                        result[LAST_TOTAL] = out[1];
+                        result[MIN_TAKEN] = Math.min(result[MIN_TAKEN], out[0]);
+                        result[MAX_TAKEN] = Math.max(result[MAX_TAKEN], out[0]);
+
+                        if (!(out[0] >= 0f && out[0] <= MAX_PUBLISHED))
+                            failure[0] = "value out of range: " + out[0];
+                        else if (!(out[1] >= 0f && out[1] < PRODUCERS))
+                            failure[0] = "total out of range: " + out[1];
+                        else if (smoothing == FeedSlots.LATEST) {
+
+                            int producer = (int) out[1];
+
+                            if ((int) (out[0] / PUBLISHES_PER_PRODUCER) != producer)
+                                failure[0] = "torn value/total: " + out[0] + "/" + out[1];
+                            else if (out[0] < latest[producer])
+                                failure[0] = "value went backwards: " + latest[producer]
+                                        + " -> " + out[0];
+
+                            latest[producer] = out[0];
+                        }
+                    }
+
+                    if (finished)
+                        break;
+                }
+            }
+        };
+        consumer.start();
+
+        start.countDown();
+
+        for (Thread producer : producers)
+            producer.join();
+
+        done.set(true);
+        consumer.join();
+
+        if (failure[0] != null)
+            fail(failure[0]);
+
+        assertTrue(takes[0] > 0);
+        assertFalse(slots.take(new float[2]));
+
+        return result;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
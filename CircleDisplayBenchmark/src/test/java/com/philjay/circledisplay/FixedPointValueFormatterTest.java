@@ -0,0 +1,169 @@
+
+package com.philjay.circledisplay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+
+public class FixedPointValueFormatterTest {
+
+    private static final DecimalFormatSymbols US = new DecimalFormatSymbols(Locale.US);
+    private static final char[] NO_UNIT = new char[0];
+
+    private static String format(FixedPointValueFormatter f, float value, char[] unit) {
+        char[] buffer = new char[f.getMaxLength(unit.length)];
+        return new String(buffer, 0, f.format(value, unit, buffer));
+    }
+
+    /** the DecimalFormat the CircleDisplay used before, unmodified */
+    private static DecimalFormat decimalFormat(int digits) {
+
+        StringBuilder pattern = new StringBuilder("###,###,###,##0");
+
+        if (digits > 0)
+            pattern.append('.');
+        for (int i = 0; i < digits; i++)
+            pattern.append('0');
+
+        return new DecimalFormat(pattern.toString(), US);
+    }
+
+    @Test
+    public void formatsLikeDecimalFormat() {
+
+        for (int digits = 0; digits <= 4; digits++) {
+
+            FixedPointValueFormatter f = new FixedPointValueFormatter(digits, US);
+            DecimalFormat expected = decimalFormat(digits);
+
+            for (int i = -20000; i <= 20000; i++) {
+
+                float value = i * 37.25f;
+
+                assertEquals(expected.format(value), format(f, value, NO_UNIT));
+            }
+        }
+    }
+
+    @Test
+    public void formatsRandomValuesLikeDecimalFormat() {
+
+        Random random = new Random(42);
+
+        for (int digits = 0; digits <= 15; digits++) {
+
+            FixedPointValueFormatter f = new FixedPointValueFormatter(digits, US);
+            DecimalFormat expected = decimalFormat(digits);
+
+            for (int i = 0; i < 20000; i++) {
+
+                // ties of every decimal place and arbitrary floats
+                float value = i % 2 == 0 ? (random.nextInt(2000001) - 1000000)
+                        / (float) (1 << random.nextInt(12)) : Float.intBitsToFloat(random
+                        .nextInt()) % 1e6f;
+
+                if (Float.isNaN(value))
+                    continue;
+
+                assertEquals(expected.format(value), format(f, value, NO_UNIT));
+            }
+        }
+    }
+
+    @Test
+    public void groupsThousands() {
+        FixedPointValueFormatter f = new FixedPointValueFormatter(1, US);
+        assertEquals("1,234,567.0", format(f, 1234567f, NO_UNIT));
+        assertEquals("-12,345.5", format(f, -12345.5f, NO_UNIT));
+        assertEquals("999.0", format(f, 999f, NO_UNIT));
+    }
+
+    @Test
+    public void roundsHalfEven() {
+        FixedPointValueFormatter f = new FixedPointValueFormatter(0, US);
+        assertEquals("2", format(f, 2.5f, NO_UNIT));
+        assertEquals("4", format(f, 3.5f, NO_UNIT));
+        assertEquals("-2", format(f, -2.5f, NO_UNIT));
+    }
+
+    @Test
+    public void keepsTheSignOfValuesRoundedToZero() {
+        FixedPointValueFormatter f = new FixedPointValueFormatter(1, US);
+        assertEquals("-0.0", format(f, -0.04f, NO_UNIT));
+        assertEquals("-0.0", format(f, -0f, NO_UNIT));
+    }
+
+    @Test
+    public void appendsTheUnit() {
+        FixedPointValueFormatter f = new FixedPointValueFormatter(1, US);
+        assertEquals("12.5 kg", format(f, 12.5f, "kg".toCharArray()));
+    }
+
+    @Test
+    public void appendsNothingWithoutUnit() {
+        FixedPointValueFormatter f = new FixedPointValueFormatter(1, US);
+        assertEquals("12.5", format(f, 12.5f, NO_UNIT));
+    }
+
+    @Test
+    public void usesTheSeparatorsOfTheSymbols() {
+        FixedPointValueFormatter f = new FixedPointValueFormatter(2, new DecimalFormatSymbols(
+                Locale.GERMANY));
+        assertEquals("1.234,50", format(f, 1234.5f, NO_UNIT));
+    }
+
+    @Test
+    public void clampsTheNumberOfDigits() {
+        assertEquals(0, new FixedPointValueFormatter(-1, US).getDigits());
+        assertEquals(15, new FixedPointValueFormatter(20, US).getDigits());
+    }
+
+    @Test
+    public void formatsValuesTooLargeForAScaledLong() {
+
+        for (int digits = 0; digits <= 15; digits++) {
+
+            FixedPointValueFormatter f = new FixedPointValueFormatter(digits, US);
+            DecimalFormat expected = decimalFormat(digits);
+
+            float[] values = {
+                    9223.5f, 10000.25f, -123456.75f, 1e18f, -3.4e38f, Float.MAX_VALUE
+            };
+
+            for (float value : values)
+                assertEquals(expected.format(value), format(f, value, NO_UNIT));
+        }
+    }
+
+    @Test
+    public void formatsInfinityAndNaNLikeDecimalFormat() {
+
+        FixedPointValueFormatter f = new FixedPointValueFormatter(1, US);
+        DecimalFormat expected = decimalFormat(1);
+
+        assertEquals(expected.format(Float.POSITIVE_INFINITY),
+                format(f, Float.POSITIVE_INFINITY, NO_UNIT));
+        assertEquals(expected.format(Float.NEGATIVE_INFINITY),
+                format(f, Float.NEGATIVE_INFINITY, NO_UNIT));
+        assertEquals(expected.format(Float.NaN), format(f, Float.NaN, NO_UNIT));
+    }
+
+    @Test
+    public void neverWritesMoreThanTheMaxLength() {
+
+        char[] unit = "unit".toCharArray();
+
+        for (int digits = 0; digits <= 15; digits++) {
+
+            FixedPointValueFormatter f = new FixedPointValueFormatter(digits, US);
+
+            assertTrue(format(f, -Float.MAX_VALUE, unit).length() <= f.getMaxLength(unit.length));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+
+package com.philjay.circledisplay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Checks that the renderer pipeline is allocation-free: counts the bytes
+ * allocated while the frames of an animation are rendered through
+ * CircleRenderer, the Android-free part every CircleDisplay frame shares
+ * (value math, formatting and the backend calls). The view's own draw path
+ * (onDraw(...), the static layer, segments, custom text, partial
+ * invalidation) and the PhaseAnimator need Android and are not covered.
+ */
+public class RendererPipelineAllocationTest {
+
+    /** frames of a one second animation at 60 fps */
+    private static final int FRAMES = 60;
+
+    private com.sun.management.ThreadMXBean mThreads;
+
+    /** backend that only looks at what it is given */
+    private static final class CountingBackend implements CircleRenderBackend {
+
+        float sweep;
+        int textChars;
+
+        @Override
+        public void drawBackgroundCircle(float cx, float cy, float radius) {
+        }
+
+        @Override
+        public void drawValueArc(float left, float top, float right, float bottom,
+                float startAngle, float sweepAngle) {
+            sweep += sweepAngle;
+        }
+
+        @Override
+        public void drawInnerCircle(float cx, float cy, float radius) {
+        }
+
+        @Override
+        public void drawCenterText(char[] text, int length, float x, float baseline) {
+            for (int i = 0; i < length; i++)
+                textChars += text[i];
+        }
+    }
+
+    @Before
+    public void setUp() {
+
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+
+        mThreads = (com.sun.management.ThreadMXBean) threads;
+
+        assumeTrue(mThreads.isThreadAllocatedMemorySupported());
+        mThreads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void rendererPipelineDoesNotAllocate() {
+
+        CircleGeometry g = new CircleGeometry(1080, 1080, 50f, 10f);
+        CountingBackend backend = new CountingBackend();
+        ValueFormatter formatter = new FixedPointValueFormatter(1,
+                new DecimalFormatSymbols(Locale.US));
+        char[] unit = "km/h".toCharArray();
+        char[] buffer = new char[formatter.getMaxLength(unit.length)];
+
+        // run the animation once before counting, so class loading is done
+        animate(backend, g, formatter, unit, buffer);
+
+        long before = allocatedBytes();
+        long overhead = allocatedBytes() - before;
+
+        before = allocatedBytes();
+        animate(backend, g, formatter, unit, buffer);
+        long allocated = allocatedBytes() - before - overhead;
+
+        assertEquals("bytes allocated during " + FRAMES + " frames", 0L, allocated);
+    }
+
+    /**
+     * renders the frames of an animation from 0 to 12,345.6 with the
+     * accelerate/decelerate curve of the CircleDisplay
+     */
+    private static void animate(CircleRenderBackend b, CircleGeometry g, ValueFormatter formatter,
+            char[] unit, char[] buffer) {
+
+        for (int frame = 0; frame <= FRAMES; frame++) {
+
+            float t = frame / (float) FRAMES;
+            float phase = (float) (Math.cos((t + 1) * Math.PI) / 2.0) + 0.5f;
+
+            CircleRenderer.render(b, g, 12345.6f * phase, 20000f, 270f, true, formatter, unit,
+                    buffer);
+        }
+    }
+
+    private long allocatedBytes() {
+        return mThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
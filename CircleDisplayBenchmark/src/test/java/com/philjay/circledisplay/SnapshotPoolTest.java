@@ -0,0 +1,96 @@
+package com.philjay.circledisplay;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SnapshotPoolTest {
+
+    private static final String SIZE = "100x100";
+
+    private final SnapshotPool<Object> mPool = new SnapshotPool<Object>(4);
+
+    @Test
+    public void releasedAndEvictedSnapshotIsHandedOutAgain() {
+
+        Object snapshot = new Object();
+        mPool.added(snapshot, SIZE);
+        mPool.acquire(snapshot);
+
+        mPool.evicted(snapshot);
+        assertNull(mPool.take(SIZE));
+
+        assertTrue(mPool.release(snapshot));
+        assertSame(snapshot, mPool.take(SIZE));
+        assertNull(mPool.take(SIZE));
+    }
+
+    @Test
+    public void evictedSnapshotIsPooledOnceTheLastCallerReleasesIt() {
+
+        Object snapshot = new Object();
+        mPool.added(snapshot, SIZE);
+        mPool.acquire(snapshot);
+        mPool.acquire(snapshot);
+        mPool.evicted(snapshot);
+
+        mPool.release(snapshot);
+        assertNull(mPool.take(SIZE));
+
+        mPool.release(snapshot);
+        assertSame(snapshot, mPool.take(SIZE));
+    }
+
+    @Test
+    public void cachedSnapshotIsNotPooled() {
+
+        Object snapshot = new Object();
+        mPool.added(snapshot, SIZE);
+        mPool.acquire(snapshot);
+        mPool.release(snapshot);
+
+        assertNull(mPool.take(SIZE));
+    }
+
+    @Test
+    public void snapshotsArePooledBySize() {
+
+        Object snapshot = new Object();
+        mPool.added(snapshot, SIZE);
+        mPool.evicted(snapshot);
+
+        assertNull(mPool.take("50x50"));
+        assertSame(snapshot, mPool.take(SIZE));
+    }
+
+    @Test
+    public void extraReleasesAreIgnored() {
+
+        Object snapshot = new Object();
+        mPool.added(snapshot, SIZE);
+        mPool.acquire(snapshot);
+
+        assertTrue(mPool.release(snapshot));
+        assertFalse(mPool.release(snapshot));
+        assertFalse(mPool.release(new Object()));
+    }
+
+    @Test
+    public void poolIsBoundedPerSize() {
+
+        SnapshotPool<Object> pool = new SnapshotPool<Object>(1);
+
+        Object first = new Object();
+        Object second = new Object();
+        pool.added(first, SIZE);
+        pool.added(second, SIZE);
+        pool.evicted(first);
+        pool.evicted(second);
+
+        assertSame(first, pool.take(SIZE));
+        assertNull(pool.take(SIZE));
+    }
+}
@@ -0,0 +1,131 @@
+package com.philjay.circledisplay.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.philjay.circledisplay.CircleGeometry;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+import javax.imageio.ImageIO;
+
+public class GaugeImageExporterTest {
+
+    private static final int SIZE = 120;
+
+    private static final int COLOR = 0xff33b5e5;
+    private static final int INNER_COLOR = 0xffffffff;
+    private static final int DIM_ALPHA = 80;
+
+    /** tolerance of a color channel, for antialiasing and rounding */
+    private static final int CHANNEL_DELTA = 2;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private GaugeImageExporter mExporter;
+
+    /** geometry the exporter lays the gauge out with, text is off */
+    private CircleGeometry mGeometry;
+
+    @Before
+    public void setUp() {
+
+        mExporter = new GaugeImageExporter();
+        mExporter.setSize(SIZE);
+        mExporter.setColor(COLOR);
+        mExporter.setInnerColor(INNER_COLOR);
+        mExporter.setDimAlpha(DIM_ALPHA);
+        mExporter.setDrawText(false);
+
+        mGeometry = new CircleGeometry(SIZE, SIZE, 50f, 0f);
+    }
+
+    @Test
+    public void exportsAPngOfTheConfiguredSize() throws Exception {
+
+        File target = mFolder.newFile("gauge.png");
+        mExporter.export(25f, 100f, target);
+
+        BufferedImage image = ImageIO.read(target);
+
+        assertEquals(SIZE, image.getWidth());
+        assertEquals(SIZE, image.getHeight());
+    }
+
+    @Test
+    public void drawsTheValueTheRemainderAndTheInnerCircle() throws Exception {
+
+        File target = mFolder.newFile("gauge.png");
+        mExporter.export(25f, 100f, target);
+
+        BufferedImage image = ImageIO.read(target);
+
+        // a quarter from north clockwise: north-east is on the value bar
+        assertPixel(COLOR, image, pointOnBar(315f));
+
+        // south-west is the dimmed remainder
+        assertPixel((DIM_ALPHA << 24) | (COLOR & 0x00ffffff), image, pointOnBar(135f));
+
+        // the center is covered by the inner circle, the corners stay empty
+        assertPixel(INNER_COLOR, image, new int[] {
+                (int) mGeometry.centerX, (int) mGeometry.centerY
+        });
+        assertEquals(0, image.getRGB(0, 0) >>> 24);
+    }
+
+    @Test
+    public void exportsAllGauges() throws Exception {
+
+        File[] targets = {
+                new File(mFolder.getRoot(), "a.png"), new File(mFolder.getRoot(), "b.png"),
+                new File(mFolder.getRoot(), "c.png")
+        };
+
+        mExporter.exportAll(new float[] {
+                0f, 50f, 100f
+        }, new float[] {
+                100f, 100f, 100f
+        }, targets, 2);
+
+        for (File target : targets) {
+            assertTrue(target.exists());
+            assertEquals(SIZE, ImageIO.read(target).getWidth());
+        }
+    }
+
+    /**
+     * returns the pixel in the middle of the bar at the given angle (Android
+     * convention, clockwise from east)
+     */
+    private int[] pointOnBar(float angle) {
+
+        double r = (mGeometry.radius + mGeometry.innerRadius) / 2.0;
+        double rad = Math.toRadians(angle);
+
+        return new int[] {
+                (int) Math.round(mGeometry.centerX + r * Math.cos(rad)),
+                (int) Math.round(mGeometry.centerY + r * Math.sin(rad))
+        };
+    }
+
+    private static void assertPixel(int expected, BufferedImage image, int[] point) {
+
+        int actual = image.getRGB(point[0], point[1]);
+
+        for (int shift = 0; shift < 32; shift += 8) {
+            int e = (expected >>> shift) & 0xff;
+            int a = (actual >>> shift) & 0xff;
+
+            if (Math.abs(e - a) > CHANNEL_DELTA)
+                throw new AssertionError(String.format("pixel at %d,%d: expected %08x, was %08x",
+                        point[0], point[1], expected, actual));
+        }
+    }
+}
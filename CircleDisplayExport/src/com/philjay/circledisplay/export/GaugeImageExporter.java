@@ -0,0 +1,273 @@
+
+package com.philjay.circledisplay.export;
+
+import com.philjay.circledisplay.CircleGeometry;
+import com.philjay.circledisplay.CircleRenderer;
+import com.philjay.circledisplay.FixedPointValueFormatter;
+import com.philjay.circledisplay.ValueFormatter;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Renders CircleDisplay gauges headless into BufferedImages and writes them
+ * as PNG files, e.g. for reports generated on a server. Uses the same
+ * rendering pipeline as the CircleDisplay view (CircleRenderer) with a
+ * Java2DRenderBackend. Configure the exporter first, after that render(...)
+ * and exportAll(...) can be called from any thread.
+ * 
+ * @author Philipp Jahoda
+ */
+public class GaugeImageExporter {
+
+    /** width and height of the images in pixels */
+    private int mSize = 256;
+
+    private int mColor = 0xff33b5e5;
+    private int mInnerColor = 0xffffffff;
+    private int mTextColor = 0xff000000;
+
+    /** alpha value used for the background circle */
+    private int mDimAlpha = 80;
+
+    /** percent of the width the value takes */
+    private float mValueWidthPercent = 50f;
+
+    /** angle where the value starts, 270 is NORTH */
+    private float mStartAngle = 270f;
+
+    private boolean mDrawInner = true;
+    private boolean mDrawText = true;
+
+    private Font mFont = new Font(Font.SANS_SERIF, Font.PLAIN, 32);
+
+    private ValueFormatter mFormatter = new FixedPointValueFormatter(1);
+
+    private char[] mUnitChars = new char[0];
+
+    /**
+     * renders a single gauge into a new image
+     * 
+     * @param value
+     * @param total
+     * @return
+     */
+    public BufferedImage render(float value, float total) {
+
+        BufferedImage image = new BufferedImage(mSize, mSize, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+
+        try {
+            Java2DRenderBackend backend = new Java2DRenderBackend(mColor, mInnerColor,
+                    mTextColor, mDimAlpha, mFont);
+            backend.setGraphics(g);
+
+            CircleGeometry geometry = new CircleGeometry(mSize, mSize, mValueWidthPercent,
+                    backend.getTextDescent(g));
+
+            char[] buffer = new char[mFormatter.getMaxLength(mUnitChars.length)];
+
+            CircleRenderer.render(backend, geometry, value, total, mStartAngle, mDrawInner,
+                    mDrawText ? mFormatter : null, mUnitChars, buffer);
+        } finally {
+            g.dispose();
+        }
+
+        return image;
+    }
+
+    /**
+     * renders a single gauge and writes it as PNG to the given file
+     * 
+     * @param value
+     * @param total
+     * @param target
+     * @throws IOException
+     */
+    public void export(float value, float total, File target) throws IOException {
+
+        if (!ImageIO.write(render(value, total), "png", target))
+            throw new IOException("No PNG writer available");
+    }
+
+    /**
+     * Renders the gauges for the given values in parallel and writes them as
+     * PNG files, values[i] of totals[i] to targets[i]. Returns when all images
+     * are written. If one of them fails, the first error is thrown after the
+     * others have finished.
+     * 
+     * @param values
+     * @param totals
+     * @param targets
+     * @param threads number of rendering threads
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public void exportAll(float[] values, float[] totals, File[] targets, int threads)
+            throws IOException, InterruptedException {
+
+        if (values.length != totals.length || values.length != targets.length)
+            throw new IllegalArgumentException("values, totals and targets differ in length");
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>(values.length);
+
+            for (int i = 0; i < values.length; i++) {
+
+                final float value = values[i];
+                final float total = totals[i];
+                final File target = targets[i];
+
+                results.add(executor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() throws IOException {
+                        export(value, total, target);
+                        return null;
+                    }
+                }));
+            }
+
+            IOException error = null;
+
+            for (Future<Void> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    if (error == null)
+                        error = e.getCause() instanceof IOException ? (IOException) e.getCause()
+                                : new IOException(e.getCause());
+                }
+            }
+
+            if (error != null)
+                throw error;
+
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * sets the width and height of the images in pixels
+     * 
+     * @param size
+     */
+    public void setSize(int size) {
+        mSize = size;
+    }
+
+    /**
+     * sets the color of the value (ARGB)
+     * 
+     * @param color
+     */
+    public void setColor(int color) {
+        mColor = color;
+    }
+
+    /**
+     * sets the color of the inner circle (ARGB)
+     * 
+     * @param color
+     */
+    public void setInnerColor(int color) {
+        mInnerColor = color;
+    }
+
+    /**
+     * sets the color of the center text (ARGB)
+     * 
+     * @param color
+     */
+    public void setTextColor(int color) {
+        mTextColor = color;
+    }
+
+    /**
+     * set the alpha value of the background circle, 0-255
+     * 
+     * @param alpha
+     */
+    public void setDimAlpha(int alpha) {
+        mDimAlpha = alpha;
+    }
+
+    /**
+     * set the thickness of the value bar, default 50%
+     * 
+     * @param percentFromTotalWidth
+     */
+    public void setValueWidthPercent(float percentFromTotalWidth) {
+        mValueWidthPercent = percentFromTotalWidth;
+    }
+
+    /**
+     * set the starting angle for the value, 270 is NORTH
+     * 
+     * @param angle
+     */
+    public void setStartAngle(float angle) {
+        mStartAngle = angle;
+    }
+
+    /**
+     * set this to false to not draw the inner circle
+     * 
+     * @param enabled
+     */
+    public void setDrawInnerCircle(boolean enabled) {
+        mDrawInner = enabled;
+    }
+
+    /**
+     * set this to false to not draw any text
+     * 
+     * @param enabled
+     */
+    public void setDrawText(boolean enabled) {
+        mDrawText = enabled;
+    }
+
+    /**
+     * sets the font of the center text
+     * 
+     * @param font
+     */
+    public void setFont(Font font) {
+        mFont = font;
+    }
+
+    /**
+     * sets the formatter of the center text, must not keep state between
+     * calls as it is shared by the rendering threads
+     * 
+     * @param formatter
+     */
+    public void setValueFormatter(ValueFormatter formatter) {
+        mFormatter = formatter;
+    }
+
+    /**
+     * set the unit that is displayed next to the value
+     * 
+     * @param unit
+     */
+    public void setUnit(String unit) {
+        mUnitChars = unit == null ? new char[0] : unit.toCharArray();
+    }
+}
@@ -0,0 +1,114 @@
+
+package com.philjay.circledisplay.export;
+
+import com.philjay.circledisplay.CircleRenderBackend;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Ellipse2D;
+
+/**
+ * CircleRenderBackend drawing onto a Java2D Graphics2D, e.g. of a
+ * BufferedImage. Needs no Android classes and runs headless on a plain JVM.
+ * An instance is not thread-safe, use one per thread.
+ * 
+ * @author Philipp Jahoda
+ */
+public class Java2DRenderBackend implements CircleRenderBackend {
+
+    private Graphics2D mGraphics;
+
+    private Color mColor;
+    private Color mDimColor;
+    private Color mInnerColor;
+    private Color mTextColor;
+
+    private Font mFont;
+
+    /** shapes reused for every part */
+    private final Ellipse2D.Float mCircle = new Ellipse2D.Float();
+    private final Arc2D.Float mArc = new Arc2D.Float(Arc2D.PIE);
+
+    /**
+     * @param color color of the value (ARGB)
+     * @param innerColor color of the inner circle (ARGB)
+     * @param textColor color of the center text (ARGB)
+     * @param dimAlpha alpha of the background circle, 0-255
+     * @param font font of the center text
+     */
+    public Java2DRenderBackend(int color, int innerColor, int textColor, int dimAlpha,
+            Font font) {
+        mColor = new Color(color, true);
+        mDimColor = new Color((color & 0x00ffffff) | (dimAlpha << 24), true);
+        mInnerColor = new Color(innerColor, true);
+        mTextColor = new Color(textColor, true);
+        mFont = font;
+    }
+
+    /**
+     * sets the graphics to draw onto and enables antialiasing on it
+     * 
+     * @param g
+     */
+    public void setGraphics(Graphics2D g) {
+        mGraphics = g;
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
+                RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        g.setFont(mFont);
+    }
+
+    /**
+     * returns the descent of the text font, needed for the CircleGeometry
+     * 
+     * @param g
+     * @return
+     */
+    public float getTextDescent(Graphics2D g) {
+        return g.getFontMetrics(mFont).getDescent();
+    }
+
+    @Override
+    public void drawBackgroundCircle(float cx, float cy, float radius) {
+        fillCircle(cx, cy, radius, mDimColor);
+    }
+
+    @Override
+    public void drawValueArc(float left, float top, float right, float bottom,
+            float startAngle, float sweepAngle) {
+
+        // Java2D angles grow counter-clockwise, the Android ones clockwise
+        mArc.setArc(left, top, right - left, bottom - top, -startAngle, -sweepAngle,
+                Arc2D.PIE);
+
+        mGraphics.setColor(mColor);
+        mGraphics.fill(mArc);
+    }
+
+    @Override
+    public void drawInnerCircle(float cx, float cy, float radius) {
+        fillCircle(cx, cy, radius, mInnerColor);
+    }
+
+    @Override
+    public void drawCenterText(char[] text, int length, float x, float baseline) {
+
+        FontMetrics fm = mGraphics.getFontMetrics();
+        String s = new String(text, 0, length);
+
+        mGraphics.setColor(mTextColor);
+        mGraphics.drawString(s, x - fm.stringWidth(s) / 2f, baseline);
+    }
+
+    private void fillCircle(float cx, float cy, float radius, Color color) {
+        mCircle.setFrame(cx - radius, cy - radius, radius * 2f, radius * 2f);
+        mGraphics.setColor(color);
+        mGraphics.fill(mCircle);
+    }
+}